@@ -0,0 +1,120 @@
+package com.knowledge.manager;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The analyses themselves, with findings sent to a blackhole instead of the console.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalysisBenchmark {
+
+    private static final int THRESHOLD = 4;
+    private static final RuleSet TEN_RULES = RuleSet.builder()
+            .salaryBand(1.2, 1.5).maxDepth(THRESHOLD).spanOfControl(1, 50).skipLevelRatio(1.1).payCompression(1.01)
+            .salaryBand(0, 1, 1.3, 2.0).salaryBand(2, 3, 1.2, 1.6).maxDepth(THRESHOLD * 3).spanOfControl(2, 100)
+            .skipLevelRatio(1.05).build();
+
+    @Benchmark
+    public void analyzeManagerSalaryMaps(OrgState org, Blackhole bh) {
+        ManagerSalaryAnalyzer.analyzeManagerSalary(org.managerToReports, org.idToEmployee, bh::consume);
+    }
+
+    @Benchmark
+    public void analyzeTable(OrgState org, Blackhole bh) {
+        EmployeeTableAnalyzer.analyze(org.table, 1, THRESHOLD, bh::consume);
+    }
+
+    @Benchmark
+    public void salaryBandsTable(OrgState org, Blackhole bh) {
+        SalaryBandAnalyzer.analyze(org.table, StructureValidator.validate(org.table), 1, bh::consume);
+    }
+
+    /**
+     * The 100 most underpaid and overpaid managers; compare with {@link #salaryBandsTable}.
+     */
+    @Benchmark
+    public BandTopK.Result topHundredBands(OrgState org) {
+        return new BandTopK(100).select(org.table, org.structure, 1);
+    }
+
+    /**
+     * The original per-employee walk to the CEO, O(N * depth).
+     */
+    @Benchmark
+    public long countManagersToCEO(OrgState org) {
+        long total = 0;
+        for (Employee e : org.employees) total += ManagerSalaryAnalyzer.countManagersToCEO(e, org.idToEmployee);
+        return total;
+    }
+
+    /**
+     * The same counts from the ancestor index, O(N log depth).
+     */
+    @Benchmark
+    public long countManagersToCEOIndexed(OrgState org) {
+        long total = 0;
+        for (Employee e : org.employees) total += ManagerSalaryAnalyzer.countManagersToCEO(e.id, org.ancestors);
+        return total;
+    }
+
+    /**
+     * Lowest common manager of every employee and the one a third of the table away.
+     */
+    @Benchmark
+    public long lowestCommonManager(OrgState org) {
+        AncestorIndex index = org.ancestors;
+        int n = org.table.size();
+        long total = 0;
+        for (int r = 0; r < n; r++) total += index.lowestCommonManager(r, (r + n / 3) % n);
+        return total;
+    }
+
+    /**
+     * What printEmployeesWithDeepHierarchy computes, minus the printing: depth index plus lookups.
+     */
+    @Benchmark
+    public void deepHierarchyMaps(OrgState org, Blackhole bh) {
+        Map<Integer, Integer> depths = ManagerSalaryAnalyzer.buildDepthIndex(org.idToEmployee);
+        for (Employee e : org.employees) {
+            int count = ManagerSalaryAnalyzer.lookupManagersToCEO(e, depths);
+            if (count > THRESHOLD) bh.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void deepHierarchyTable(OrgState org, Blackhole bh) {
+        EmployeeTableAnalyzer.reportDeepHierarchy(org.table, DepthIndex.build(org.table), THRESHOLD, bh::consume);
+    }
+
+    /**
+     * The default band and depth rules through the rule engine.
+     */
+    @Benchmark
+    public void rulesDefaults(OrgState org, Blackhole bh) {
+        RuleSet.defaults(THRESHOLD).evaluate(org.table, org.depths, org.structure, bh::consume);
+    }
+
+    /**
+     * Ten rules in the same pass; should cost little more than {@link #rulesDefaults}.
+     */
+    @Benchmark
+    public void rulesTen(OrgState org, Blackhole bh) {
+        TEN_RULES.evaluate(org.table, org.depths, org.structure, bh::consume);
+    }
+
+    /**
+     * Cycle, root and multiple-manager detection in one pass.
+     */
+    @Benchmark
+    public StructureValidator detectCycles(OrgState org) {
+        return StructureValidator.validate(org.table);
+    }
+}
@@ -0,0 +1,48 @@
+package com.knowledge.manager;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index builds over an already parsed org: the classic maps, the columnar table and the depth indexes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexBenchmark {
+
+    @Benchmark
+    public Map<Integer, Employee> buildIdToEmployee(OrgState org) {
+        return ManagerSalaryAnalyzer.buildIdToEmployee(org.employees);
+    }
+
+    @Benchmark
+    public Map<Integer, List<Employee>> buildManagerToReports(OrgState org) {
+        return ManagerSalaryAnalyzer.buildManagerToReports(org.employees);
+    }
+
+    @Benchmark
+    public EmployeeTable buildEmployeeTable(OrgState org) {
+        return EmployeeTable.of(org.employees);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> buildDepthIndexMap(OrgState org) {
+        return ManagerSalaryAnalyzer.buildDepthIndex(org.idToEmployee);
+    }
+
+    @Benchmark
+    public DepthIndex buildDepthIndexTable(OrgState org) {
+        return DepthIndex.build(org.table);
+    }
+
+    @Benchmark
+    public AncestorIndex buildAncestorIndex(OrgState org) {
+        return AncestorIndex.build(org.table);
+    }
+}
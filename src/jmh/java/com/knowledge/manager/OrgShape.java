@@ -0,0 +1,67 @@
+package com.knowledge.manager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Org shapes for the benchmarks. Employee 1 is the CEO; ids are dense and every manager id exists.
+ */
+public enum OrgShape {
+    /**
+     * Fan-out of 1000: at most three levels even at 10M rows, one huge report list per manager.
+     */
+    FLAT {
+        @Override
+        int managerOf(int id) {
+            return (id - 2) / 1000 + 1;
+        }
+    },
+    /**
+     * Chains of 256 below the CEO: long walks for the reporting-line and cycle checks.
+     */
+    DEEP {
+        @Override
+        int managerOf(int id) {
+            return (id - 2) % CHAIN == 0 ? 1 : id - 1;
+        }
+    },
+    /**
+     * Balanced tree with a fan-out of 8, the typical shape of a large company.
+     */
+    BUSHY {
+        @Override
+        int managerOf(int id) {
+            return (id - 2) / 8 + 1;
+        }
+    };
+
+    private static final int CHAIN = 256;
+
+    abstract int managerOf(int id);
+
+    public List<Employee> employees(int size, long seed) {
+        Random random = new Random(seed);
+        List<Employee> employees = new ArrayList<>(size);
+        employees.add(new Employee(1, "Ceo", "Top", 500000, null));
+        for (int id = 2; id <= size; id++) {
+            employees.add(new Employee(id, "F" + (id % 5000), "L" + (id % 7000), 30000 + random.nextInt(170000), managerOf(id)));
+        }
+        return employees;
+    }
+
+    public void writeCsv(Path file, int size, long seed) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("Id,firstName,lastName,salary,managerId\n");
+            for (Employee e : employees(size, seed)) {
+                out.write(e.id + "," + e.firstName + "," + e.lastName + "," + (long) e.salary + ","
+                        + (e.managerId == null ? "" : e.managerId) + "\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.knowledge.manager;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One generated org per (rows, shape) trial, with the map and table indexes prebuilt for the analysis benchmarks.
+ * 10M rows needs a large heap, e.g. {@code -jvmArgs -Xmx8g}.
+ */
+@State(Scope.Benchmark)
+public class OrgState {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"FLAT", "DEEP", "BUSHY"})
+    public OrgShape shape;
+
+    List<Employee> employees;
+    Map<Integer, Employee> idToEmployee;
+    Map<Integer, List<Employee>> managerToReports;
+    EmployeeTable table;
+    DepthIndex depths;
+    StructureValidator structure;
+    AncestorIndex ancestors;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        employees = shape.employees(rows, 42);
+        idToEmployee = ManagerSalaryAnalyzer.buildIdToEmployee(employees);
+        managerToReports = ManagerSalaryAnalyzer.buildManagerToReports(employees);
+        table = EmployeeTable.of(employees);
+        depths = DepthIndex.build(table);
+        structure = StructureValidator.validate(table);
+        ancestors = AncestorIndex.build(table);
+    }
+}
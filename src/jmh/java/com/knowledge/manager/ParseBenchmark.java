@@ -0,0 +1,55 @@
+package com.knowledge.manager;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV parsing: the streaming reader into objects, the mapped parallel reader, and the columnar table.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"FLAT", "DEEP", "BUSHY"})
+    public OrgShape shape;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = Files.createTempFile("employees-" + shape + "-" + rows, ".csv");
+        shape.writeCsv(file, rows, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<Employee> readEmployeesStreaming() {
+        return ManagerSalaryAnalyzer.readEmployeesFromCsv(file, CsvParseMode.STREAMING);
+    }
+
+    @Benchmark
+    public List<Employee> readEmployeesMappedParallel() {
+        return ManagerSalaryAnalyzer.readEmployeesFromCsv(file, CsvParseMode.MAPPED_PARALLEL);
+    }
+
+    @Benchmark
+    public EmployeeTable readEmployeeTable() {
+        return ManagerSalaryAnalyzer.readEmployeeTable(file, CsvParseMode.STREAMING);
+    }
+}
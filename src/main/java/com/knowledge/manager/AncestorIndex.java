@@ -0,0 +1,153 @@
+package com.knowledge.manager;
+
+import java.util.Arrays;
+
+/**
+ * Chain-of-command queries over an {@link EmployeeTable}, answered without walking reporting lines:
+ * "is X above Y" in O(1), "the k-th manager above X" and "the lowest common manager of A and B" in O(log depth).
+ * <p>
+ * Built once in O(N log depth) with one depth-first pass over the CSR report index. The pass numbers rows in
+ * pre-order ({@code enter}) and records the last number inside each subtree ({@code exit}), so X is in the chain
+ * of command of Y exactly when Y's number falls in X's range. Alongside, {@code up[j][r]} holds the 2^j-th
+ * manager above row {@code r} (or the top of its line when there are fewer), which jumps to any ancestor in
+ * log steps. The number of levels follows the depth of the org, not its size.
+ * <p>
+ * Every row without a manager in the table starts a tree, including rows whose manager is missing. Rows caught
+ * in a circular reporting structure are not in any tree: they are their own only ancestor and have no common
+ * manager with anyone.
+ */
+public final class AncestorIndex {
+
+    /**
+     * Returned by row queries when there is no such row.
+     */
+    public static final int NONE = -1;
+
+    private final EmployeeTable table;
+    final int[] enter;
+    final int[] exit;
+    final int[] level;
+    final int[][] up;
+
+    private AncestorIndex(EmployeeTable table, int[] enter, int[] exit, int[] level, int[][] up) {
+        this.table = table;
+        this.enter = enter;
+        this.exit = exit;
+        this.level = level;
+        this.up = up;
+    }
+
+    public static AncestorIndex build(EmployeeTable table) {
+        int n = table.size;
+        int[] enter = new int[n];
+        int[] exit = new int[n];
+        int[] level = new int[n];
+        int[] parent = new int[n];
+        Arrays.fill(enter, NONE);
+        Arrays.fill(exit, NONE);
+        for (int r = 0; r < n; r++) parent[r] = table.managerIdx[r] < 0 ? r : table.managerIdx[r];
+
+        // Iterative DFS; cursor[i] is the next report of stack[i] to visit.
+        int[] stack = new int[n];
+        int[] cursor = new int[n];
+        int clock = 0;
+        int maxLevel = 0;
+        for (int root = 0; root < n; root++) {
+            if (table.managerIdx[root] >= 0) continue;
+            int top = 0;
+            stack[0] = root;
+            cursor[0] = table.childOffsets[root];
+            enter[root] = clock++;
+            while (top >= 0) {
+                int r = stack[top];
+                if (cursor[top] < table.childOffsets[r + 1]) {
+                    int child = table.childIdx[cursor[top]++];
+                    enter[child] = clock++;
+                    level[child] = level[r] + 1;
+                    if (level[child] > maxLevel) maxLevel = level[child];
+                    stack[++top] = child;
+                    cursor[top] = table.childOffsets[child];
+                } else {
+                    exit[r] = clock - 1;
+                    top--;
+                }
+            }
+        }
+        // Rows left unnumbered are on or below a cycle; make them their own top so jumps stay in place.
+        for (int r = 0; r < n; r++) {
+            if (enter[r] == NONE) parent[r] = r;
+        }
+
+        int levels = Math.max(1, 32 - Integer.numberOfLeadingZeros(maxLevel));
+        int[][] up = new int[levels][];
+        up[0] = parent;
+        for (int j = 1; j < levels; j++) {
+            int[] previous = up[j - 1];
+            int[] jump = new int[n];
+            for (int r = 0; r < n; r++) jump[r] = previous[previous[r]];
+            up[j] = jump;
+        }
+        return new AncestorIndex(table, enter, exit, level, up);
+    }
+
+    public EmployeeTable getTable() {
+        return table;
+    }
+
+    /**
+     * True when {@code manager} is above {@code row} in its reporting line, directly or indirectly.
+     * A row is not its own manager.
+     */
+    public boolean isManagerOf(int manager, int row) {
+        return manager != row && isSelfOrManagerOf(manager, row);
+    }
+
+    private boolean isSelfOrManagerOf(int manager, int row) {
+        int e = enter[row];
+        return e != NONE && enter[manager] != NONE && enter[manager] <= e && e <= exit[manager];
+    }
+
+    /**
+     * The {@code k}-th manager above the row ({@code k = 1} is the direct manager, 0 the row itself), or
+     * {@link #NONE} when the line ends sooner or the row is in a circular reporting structure.
+     */
+    public int managerAbove(int row, int k) {
+        if (k < 0) throw new IllegalArgumentException("k must not be negative: " + k);
+        if (k == 0) return row;
+        if (enter[row] == NONE || k > level[row]) return NONE;
+        int r = row;
+        for (int j = 0; k != 0; j++, k >>>= 1) {
+            if ((k & 1) != 0) r = up[j][r];
+        }
+        return r;
+    }
+
+    /**
+     * The lowest row that both rows report to, directly, indirectly or by being it: for a manager and someone in
+     * their line this is the manager. {@link #NONE} when the rows are in different trees (e.g. below two roots)
+     * or either is in a circular reporting structure.
+     */
+    public int lowestCommonManager(int a, int b) {
+        if (enter[a] == NONE || enter[b] == NONE) return NONE;
+        if (isSelfOrManagerOf(a, b)) return a;
+        if (isSelfOrManagerOf(b, a)) return b;
+        int r = a;
+        for (int j = up.length - 1; j >= 0; j--) {
+            int jump = up[j][r];
+            if (!isSelfOrManagerOf(jump, b)) r = jump;
+        }
+        int manager = up[0][r];
+        return isSelfOrManagerOf(manager, b) ? manager : NONE;
+    }
+
+    /**
+     * Same count as {@link EmployeeTableAnalyzer#countManagersToCEO}, in O(log depth): managers above the row,
+     * plus one when the line ends at a manager that is not in the table. {@link DepthIndex#CYCLE} for rows in a
+     * circular reporting structure.
+     */
+    public int managersToCEO(int row) {
+        if (enter[row] == NONE) return DepthIndex.CYCLE;
+        int top = managerAbove(row, level[row]);
+        return level[row] + (table.managerIdx[top] == EmployeeTable.MISSING_MANAGER ? 1 : 0);
+    }
+}
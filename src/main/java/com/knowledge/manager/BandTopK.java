@@ -0,0 +1,125 @@
+package com.knowledge.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The managers furthest outside the salary band: the {@code k} most underpaid by absolute gap to the lower
+ * bound, and the {@code k} most overpaid by {@link ManagerSalaryAnalyzer#percentDifference percent} above their
+ * reports' average salary. Optional thresholds drop smaller deviations, so {@code k} can also be set high to
+ * get "everyone underpaid by more than 10000".
+ * <p>
+ * Selection runs inside the {@link SalaryBandAnalyzer} loop: each band finding is offered to a {@link Selection},
+ * two bounded {@link TopKHeap}s, so memory is O(k) whatever the number of findings. Every slice of managers
+ * fills its own selection on its worker, and the slices are merged as the analyzer drains them; the heaps break
+ * ties by id, so the result does not depend on the parallelism. The band check can stream the full list of
+ * findings at the same time.
+ */
+public final class BandTopK {
+
+    private final int k;
+    private double minUnderpaidGap;
+    private double minOverpaidPercent;
+
+    public BandTopK(int k) {
+        if (k < 1) throw new IllegalArgumentException("k must be positive: " + k);
+        this.k = k;
+    }
+
+    /**
+     * Only keeps underpaid managers at least {@code gap} below the band.
+     */
+    public BandTopK minUnderpaidGap(double gap) {
+        this.minUnderpaidGap = gap;
+        return this;
+    }
+
+    /**
+     * Only keeps overpaid managers earning at least {@code percent} more than their reports' average.
+     */
+    public BandTopK minOverpaidPercent(double percent) {
+        this.minOverpaidPercent = percent;
+        return this;
+    }
+
+    /**
+     * Selected managers, most deviating first; equal deviations are ordered by manager id.
+     */
+    public static final class Result {
+        private final List<Finding.SalaryBand> underpaid;
+        private final List<Finding.SalaryBand> overpaid;
+
+        Result(List<Finding.SalaryBand> underpaid, List<Finding.SalaryBand> overpaid) {
+            this.underpaid = underpaid;
+            this.overpaid = overpaid;
+        }
+
+        public List<Finding.SalaryBand> getUnderpaid() {
+            return underpaid;
+        }
+
+        public List<Finding.SalaryBand> getOverpaid() {
+            return overpaid;
+        }
+    }
+
+    /**
+     * Runs the band check and returns the selected managers only.
+     */
+    public Result select(EmployeeTable table, StructureValidator structure, int parallelism) {
+        Selection selection = newSelection();
+        SalaryBandAnalyzer.analyze(table, structure, parallelism, finding -> { }, selection);
+        return selection.result(table);
+    }
+
+    /**
+     * Empty heaps to pass to {@link SalaryBandAnalyzer}; its findings can go to another sink in the same pass.
+     */
+    Selection newSelection() {
+        return new Selection();
+    }
+
+    /**
+     * The most underpaid and most overpaid managers offered so far. Not thread-safe: one per slice of managers.
+     */
+    final class Selection {
+        private final TopKHeap underpaid = new TopKHeap(k);
+        private final TopKHeap overpaid = new TopKHeap(k);
+
+        Selection newSlice() {
+            return new Selection();
+        }
+
+        void offer(Finding.SalaryBand finding, int row) {
+            if (finding.getKind() == Finding.Kind.UNDERPAID) {
+                double gap = finding.getDifference();
+                if (gap >= minUnderpaidGap) underpaid.offer(gap, finding.getManagerId(), row);
+            } else {
+                double percent = ManagerSalaryAnalyzer.percentDifference(finding.getSalary(), finding.getAverageReportSalary());
+                if (percent >= minOverpaidPercent) overpaid.offer(percent, finding.getManagerId(), row);
+            }
+        }
+
+        /**
+         * Offers everything kept by {@code other}, e.g. the selection of a finished slice.
+         */
+        void addAll(Selection other) {
+            underpaid.addAll(other.underpaid);
+            overpaid.addAll(other.overpaid);
+        }
+
+        /**
+         * The kept managers, most deviating first. Empties the selection.
+         */
+        Result result(EmployeeTable table) {
+            return new Result(findings(table, underpaid.drainBestFirst()), findings(table, overpaid.drainBestFirst()));
+        }
+    }
+
+    private static List<Finding.SalaryBand> findings(EmployeeTable table, int[] rows) {
+        // Every kept row is outside the band, so this yields one finding per row, in order.
+        List<Finding.SalaryBand> findings = new ArrayList<>(rows.length);
+        SalaryBandAnalyzer.evaluate(table, rows, 0, rows.length, finding -> findings.add((Finding.SalaryBand) finding));
+        return findings;
+    }
+}
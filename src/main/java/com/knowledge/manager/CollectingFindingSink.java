@@ -0,0 +1,27 @@
+package com.knowledge.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps every finding in memory, mainly for tests and for callers that still want a list.
+ */
+public class CollectingFindingSink implements FindingSink {
+
+    private final List<Finding> findings = new ArrayList<>();
+
+    @Override
+    public void accept(Finding finding) {
+        findings.add(finding);
+    }
+
+    public List<Finding> getFindings() {
+        return findings;
+    }
+
+    public List<String> getTexts() {
+        List<String> texts = new ArrayList<>(findings.size());
+        for (Finding finding : findings) texts.add(finding.toText());
+        return texts;
+    }
+}
@@ -0,0 +1,131 @@
+package com.knowledge.manager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Field splitting and row rules for one employee CSV line, shared by {@link EmployeeCsvReader}, which parses
+ * decoded chars, and {@link MappedCsvReader}, which parses the UTF-8 bytes of a mapped range.
+ * <p>
+ * Delimiters and digits are ASCII, so they compare the same as chars and as bytes; only the name fields are
+ * turned into Strings, and numbers are parsed in place by {@link CsvNumbers}. Lines with fewer than 5 comma
+ * separated fields, or whose numeric columns cannot be parsed, are skipped and counted; an empty managerId
+ * means "no manager".
+ */
+abstract class CsvLineParser {
+
+    private static final int FIELD_COUNT = 5;
+
+    private final EmployeeRowHandler handler;
+    private final int[] fieldEnds = new int[FIELD_COUNT];
+    private long rowsRead;
+    private long rowsSkipped;
+
+    CsvLineParser(EmployeeRowHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * The char or byte at {@code i}.
+     */
+    abstract int at(int i);
+
+    /**
+     * The text of {@code [from, to)}.
+     */
+    abstract String text(int from, int to);
+
+    long getRowsRead() {
+        return rowsRead;
+    }
+
+    long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    /**
+     * Parses the line {@code [from, to)}, without its newline, and passes it to the handler or counts it as skipped.
+     */
+    void parseLine(int from, int to) {
+        if (to > from && at(to - 1) == '\r') to--;
+        int fields = 0;
+        for (int i = from; i < to && fields < FIELD_COUNT; i++) {
+            if (at(i) == ',') fieldEnds[fields++] = i;
+        }
+        if (fields < FIELD_COUNT - 1) {
+            rowsSkipped++;
+            return;
+        }
+        if (fields == FIELD_COUNT - 1) fieldEnds[FIELD_COUNT - 1] = to;
+
+        int managerFrom = fieldEnds[3] + 1;
+        int managerTo = fieldEnds[4];
+        int id;
+        double salary;
+        int managerId;
+        try {
+            id = CsvNumbers.parseInt(this, from, fieldEnds[0]);
+            salary = CsvNumbers.parseDouble(this, fieldEnds[2] + 1, fieldEnds[3]);
+            managerId = managerFrom == managerTo ? EmployeeRowHandler.NO_MANAGER
+                    : CsvNumbers.parseInt(this, managerFrom, managerTo);
+        } catch (NumberFormatException e) {
+            rowsSkipped++;
+            return;
+        }
+        if (managerId == EmployeeRowHandler.NO_MANAGER && managerFrom != managerTo) {
+            rowsSkipped++;
+            return;
+        }
+        String firstName = text(fieldEnds[0] + 1, fieldEnds[1]);
+        String lastName = text(fieldEnds[1] + 1, fieldEnds[2]);
+        rowsRead++;
+        handler.onRow(id, firstName, lastName, salary, managerId);
+    }
+
+    /**
+     * Lines in a char buffer; the reader points {@link #buf} at its current buffer.
+     */
+    static final class Chars extends CsvLineParser {
+        char[] buf;
+
+        Chars(EmployeeRowHandler handler) {
+            super(handler);
+        }
+
+        @Override
+        int at(int i) {
+            return buf[i];
+        }
+
+        @Override
+        String text(int from, int to) {
+            return new String(buf, from, to - from);
+        }
+    }
+
+    /**
+     * Lines in a buffer of UTF-8 bytes, e.g. a mapped file range.
+     */
+    static final class Bytes extends CsvLineParser {
+        private final ByteBuffer buf;
+        private byte[] scratch = new byte[64];
+
+        Bytes(EmployeeRowHandler handler, ByteBuffer buf) {
+            super(handler);
+            this.buf = buf;
+        }
+
+        @Override
+        int at(int i) {
+            return buf.get(i);
+        }
+
+        @Override
+        String text(int from, int to) {
+            int len = to - from;
+            if (len > scratch.length) scratch = new byte[Math.max(len, scratch.length * 2)];
+            for (int i = 0; i < len; i++) scratch[i] = buf.get(from + i);
+            return new String(scratch, 0, len, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.knowledge.manager;
+
+/**
+ * Allocation-free number parsing over raw CSV field ranges of a {@link CsvLineParser}, whether chars or bytes.
+ * Anything outside the simple fast path falls back to the JDK parsers so results
+ * stay identical to {@link Integer#parseInt(String)} and {@link Double#parseDouble(String)}.
+ */
+final class CsvNumbers {
+
+    // Powers of ten that are exactly representable as doubles.
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Up to 15 significant digits always fit in the 53-bit double mantissa.
+    private static final int MAX_FAST_DIGITS = 15;
+
+    private CsvNumbers() {
+    }
+
+    static int parseInt(CsvLineParser line, int from, int to) {
+        if (from >= to) throw new NumberFormatException("Empty integer field");
+        boolean negative = false;
+        int i = from;
+        int first = line.at(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == to) throw new NumberFormatException("Sign without digits");
+        }
+        // Accumulate negatively so Integer.MIN_VALUE parses without overflow.
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int result = 0;
+        for (; i < to; i++) {
+            int digit = line.at(i) - '0';
+            if (digit < 0 || digit > 9 || result < (limit + digit) / 10) {
+                throw new NumberFormatException("Invalid integer: " + line.text(from, to));
+            }
+            result = result * 10 - digit;
+        }
+        return negative ? result : -result;
+    }
+
+    static double parseDouble(CsvLineParser line, int from, int to) {
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean negative = false;
+        boolean seenDot = false;
+        int i = from;
+        if (i < to && (line.at(i) == '-' || line.at(i) == '+')) {
+            negative = line.at(i) == '-';
+            i++;
+        }
+        int start = i;
+        for (; i < to; i++) {
+            int c = line.at(i);
+            if (c >= '0' && c <= '9') {
+                if (mantissa != 0 || c != '0') digits++;
+                mantissa = mantissa * 10 + (c - '0');
+                if (seenDot) fractionDigits++;
+                if (digits > MAX_FAST_DIGITS) break;
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                break;
+            }
+        }
+        if (i != to || i == start || (seenDot && i - start == 1) || fractionDigits >= POW10.length) {
+            return Double.parseDouble(line.text(from, to));
+        }
+        double value = fractionDigits == 0 ? mantissa : mantissa / POW10[fractionDigits];
+        return negative ? -value : value;
+    }
+}
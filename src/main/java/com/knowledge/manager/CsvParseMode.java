@@ -0,0 +1,15 @@
+package com.knowledge.manager;
+
+/**
+ * How {@link ManagerSalaryAnalyzer#readEmployeesFromCsv(java.nio.file.Path, CsvParseMode)} parses a file.
+ */
+public enum CsvParseMode {
+    /**
+     * Single-threaded chunked reader, see {@link EmployeeCsvReader}.
+     */
+    STREAMING,
+    /**
+     * Memory-mapped file parsed in newline-aligned ranges on a fork-join pool, see {@link MappedCsvReader}.
+     */
+    MAPPED_PARALLEL
+}
@@ -0,0 +1,99 @@
+package com.knowledge.manager;
+
+import java.util.Arrays;
+
+/**
+ * Number of managers between every employee and the top of their reporting line, computed once in O(N).
+ * <p>
+ * The index is built top-down over the CSR report index: rows with no manager start at depth 0, rows whose
+ * manager is missing start at depth 1 (the dangling hop counts, as in
+ * {@link ManagerSalaryAnalyzer#countManagersToCEO}), and every report sits one level below its manager.
+ * Rows that are never reached hang off a circular reporting structure and get {@link #CYCLE}.
+ * <p>
+ * Reached rows are also kept sorted by depth, so "everyone deeper than N" is a slice of that order.
+ */
+public final class DepthIndex {
+
+    /**
+     * Depth of a row whose chain of managers loops and never reaches a top.
+     */
+    public static final int CYCLE = -1;
+
+    final int[] depth;
+    final int[] rowsByDepth;
+    // rowsByDepth[depthOffsets[d] .. depthOffsets[d + 1]) are the rows at depth d.
+    final int[] depthOffsets;
+
+    DepthIndex(int[] depth, int[] rowsByDepth, int[] depthOffsets) {
+        this.depth = depth;
+        this.rowsByDepth = rowsByDepth;
+        this.depthOffsets = depthOffsets;
+    }
+
+    public static DepthIndex build(EmployeeTable table) {
+        int n = table.size;
+        int[] depth = new int[n];
+        Arrays.fill(depth, CYCLE);
+        int[] queue = new int[n];
+        int tail = 0;
+        for (int r = 0; r < n; r++) {
+            int m = table.managerIdx[r];
+            if (m == EmployeeTable.NO_MANAGER || m == EmployeeTable.MISSING_MANAGER) {
+                depth[r] = m == EmployeeTable.NO_MANAGER ? 0 : 1;
+                queue[tail++] = r;
+            }
+        }
+        // Every row has exactly one manager row, so each report is reached once.
+        int maxDepth = -1;
+        for (int head = 0; head < tail; head++) {
+            int r = queue[head];
+            int d = depth[r];
+            if (d > maxDepth) maxDepth = d;
+            for (int c = table.childOffsets[r], end = table.childOffsets[r + 1]; c < end; c++) {
+                int child = table.childIdx[c];
+                depth[child] = d + 1;
+                queue[tail++] = child;
+            }
+        }
+
+        // Counting sort of the reached rows by depth, row order within a depth.
+        int[] depthOffsets = new int[maxDepth + 2];
+        for (int r = 0; r < n; r++) {
+            if (depth[r] != CYCLE) depthOffsets[depth[r] + 1]++;
+        }
+        for (int d = 0; d <= maxDepth; d++) depthOffsets[d + 1] += depthOffsets[d];
+        int[] fill = Arrays.copyOf(depthOffsets, maxDepth + 1);
+        int[] rowsByDepth = queue;
+        for (int r = 0; r < n; r++) {
+            if (depth[r] != CYCLE) rowsByDepth[fill[depth[r]]++] = r;
+        }
+        return new DepthIndex(depth, Arrays.copyOf(rowsByDepth, tail), depthOffsets);
+    }
+
+    /**
+     * Managers between the row and the top of its reporting line, or {@link #CYCLE}.
+     */
+    public int depth(int row) {
+        return depth[row];
+    }
+
+    public int maxDepth() {
+        return depthOffsets.length - 2;
+    }
+
+    /**
+     * Number of rows with more than {@code threshold} managers above them, in O(1).
+     */
+    public int countDeeperThan(int threshold) {
+        int from = Math.max(0, Math.min(threshold + 1, depthOffsets.length - 1));
+        return rowsByDepth.length - depthOffsets[from];
+    }
+
+    /**
+     * Rows with more than {@code threshold} managers above them, shallowest first.
+     */
+    public int[] rowsDeeperThan(int threshold) {
+        int from = Math.max(0, Math.min(threshold + 1, depthOffsets.length - 1));
+        return Arrays.copyOfRange(rowsByDepth, depthOffsets[from], rowsByDepth.length);
+    }
+}
@@ -0,0 +1,89 @@
+package com.knowledge.manager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streaming employee CSV reader.
+ * Reads the input in fixed-size chunks and tokenizes each line in place with a {@link CsvLineParser}:
+ * no per-line String, no String[] from split and no substring copies for the numeric columns. Only
+ * the two name columns are materialized as Strings. There is no limit on the number of rows.
+ * <p>
+ * Row rules match the original split based parser: the first line is a header, lines with fewer
+ * than 5 comma separated fields are skipped, and an empty managerId means "no manager".
+ * Lines whose numeric columns cannot be parsed are skipped and counted as malformed.
+ */
+public class EmployeeCsvReader {
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final CsvLineParser.Chars lines;
+
+    public EmployeeCsvReader(EmployeeRowHandler handler) {
+        this.lines = new CsvLineParser.Chars(handler);
+    }
+
+    public void read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            read(in);
+        }
+    }
+
+    public void read(InputStream in) throws IOException {
+        read(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public void read(Reader reader) throws IOException {
+        char[] buf = new char[BUFFER_SIZE];
+        boolean header = true;
+        int start = 0;
+        int limit = 0;
+        boolean eof = false;
+        while (!eof || start < limit) {
+            int nl = -1;
+            for (int i = start; i < limit; i++) {
+                if (buf[i] == '\n') {
+                    nl = i;
+                    break;
+                }
+            }
+            if (nl < 0 && !eof) {
+                // Move the partial line to the front, growing the buffer for very long lines.
+                int pending = limit - start;
+                if (pending == buf.length) {
+                    char[] bigger = new char[buf.length * 2];
+                    System.arraycopy(buf, start, bigger, 0, pending);
+                    buf = bigger;
+                } else if (start > 0) {
+                    System.arraycopy(buf, start, buf, 0, pending);
+                }
+                start = 0;
+                limit = pending;
+                int n = reader.read(buf, limit, buf.length - limit);
+                if (n < 0) eof = true;
+                else limit += n;
+                continue;
+            }
+            int end = nl < 0 ? limit : nl;
+            if (header) header = false;
+            else {
+                lines.buf = buf;
+                lines.parseLine(start, end);
+            }
+            start = nl < 0 ? limit : nl + 1;
+        }
+    }
+
+    public long getRowsRead() {
+        return lines.getRowsRead();
+    }
+
+    public long getRowsSkipped() {
+        return lines.getRowsSkipped();
+    }
+}
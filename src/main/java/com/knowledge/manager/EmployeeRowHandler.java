@@ -0,0 +1,16 @@
+package com.knowledge.manager;
+
+/**
+ * Receives employee rows as they are parsed, without forcing the caller to materialize
+ * an {@link Employee} object per row.
+ */
+@FunctionalInterface
+public interface EmployeeRowHandler {
+
+    /**
+     * Sentinel passed as {@code managerId} when the row has an empty manager column (CEO or orphan).
+     */
+    int NO_MANAGER = Integer.MIN_VALUE;
+
+    void onRow(int id, String firstName, String lastName, double salary, int managerId);
+}
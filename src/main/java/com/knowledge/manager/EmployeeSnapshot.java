@@ -0,0 +1,287 @@
+package com.knowledge.manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary snapshot of an {@link EmployeeTable} and its {@link DepthIndex}, so that a run over an
+ * unchanged CSV skips parsing and index building.
+ * <p>
+ * Layout (little endian): a 64 byte header, then the int columns {@code ids, managerIds, managerIdx,
+ * firstNames, lastNames, childOffsets, childIdx, depth, rowsByDepth, depthOffsets}, the {@code salaries}
+ * column and the name pool as length-prefixed UTF-8 strings in code order. The header records the size and
+ * modification time of the source CSV and a CRC32 of everything after the header.
+ * <p>
+ * Loading maps each section and bulk-copies it into the table's arrays; no per-row objects are created.
+ * Only the id to row hash map is rebuilt.
+ */
+public final class EmployeeSnapshot {
+
+    static final long MAGIC = 0x31504E5345504D45L; // "EMPSNAP1" in little endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    private static final int CHUNK = 1 << 20;
+    private static final int MAP_LIMIT = 1 << 30;
+
+    private final EmployeeTable table;
+    private final DepthIndex depths;
+
+    EmployeeSnapshot(EmployeeTable table, DepthIndex depths) {
+        this.table = table;
+        this.depths = depths;
+    }
+
+    public EmployeeTable getTable() {
+        return table;
+    }
+
+    public DepthIndex getDepths() {
+        return depths;
+    }
+
+    /**
+     * Loads {@code snapshot} when it matches {@code csv}; otherwise parses the CSV, builds the indexes and
+     * (re)writes the snapshot for the next run. When the CSV is gone the snapshot is used as it is.
+     *
+     * @return Table and depths, or null if neither a usable snapshot nor the CSV exists.
+     */
+    public static EmployeeSnapshot loadOrBuild(Path csv, Path snapshot, CsvParseMode mode) {
+        return loadOrBuild(csv, snapshot, mode, Metrics.NOOP);
+    }
+
+    /**
+     * Like {@link #loadOrBuild(Path, Path, CsvParseMode)}, timing the snapshot load, or the parse and index
+     * phases when it falls back to the CSV.
+     */
+    public static EmployeeSnapshot loadOrBuild(Path csv, Path snapshot, CsvParseMode mode, Metrics metrics) {
+        long sourceSize = -1;
+        long sourceModified = -1;
+        boolean csvExists = Files.isRegularFile(csv);
+        try {
+            if (csvExists) {
+                sourceSize = Files.size(csv);
+                sourceModified = Files.getLastModifiedTime(csv).toMillis();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not stat " + csv + ": " + e.getMessage());
+        }
+        if (Files.isRegularFile(snapshot)) {
+            try {
+                long start = metrics.start();
+                EmployeeSnapshot loaded = read(snapshot, sourceSize, sourceModified);
+                metrics.stop("snapshotLoad", start);
+                return loaded;
+            } catch (IOException e) {
+                System.err.println("Snapshot " + snapshot + " is stale or corrupt (" + e.getMessage() + "), re-reading " + csv + ".");
+            }
+        }
+        EmployeeTable table = ManagerSalaryAnalyzer.readEmployeeTable(csv, mode, metrics);
+        if (table == null) return null;
+        long start = metrics.start();
+        DepthIndex depths = DepthIndex.build(table);
+        metrics.stop("depth", start);
+        try {
+            start = metrics.start();
+            write(snapshot, table, depths, sourceSize, sourceModified);
+            metrics.stop("snapshotWrite", start);
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot " + snapshot + ": " + e.getMessage());
+        }
+        return new EmployeeSnapshot(table, depths);
+    }
+
+    /**
+     * Writes the snapshot to a temporary file next to {@code file} and moves it into place.
+     */
+    public static void write(Path file, EmployeeTable table, DepthIndex depths, long sourceSize, long sourceModified)
+            throws IOException {
+        int n = table.size;
+        byte[][] names = new byte[table.names.size()][];
+        long namesBytes = 0;
+        for (int code = 0; code < names.length; code++) {
+            names[code] = table.names.get(code).getBytes(StandardCharsets.UTF_8);
+            namesBytes += 4 + names[code].length;
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_BYTES);
+            SectionWriter out = new SectionWriter(channel, crc);
+            out.ints(table.ids, n);
+            out.ints(table.managerIds, n);
+            out.ints(table.managerIdx, n);
+            out.ints(table.firstNames, n);
+            out.ints(table.lastNames, n);
+            out.ints(table.childOffsets, n + 1);
+            out.ints(table.childIdx, table.childIdx.length);
+            out.ints(depths.depth, n);
+            out.ints(depths.rowsByDepth, depths.rowsByDepth.length);
+            out.ints(depths.depthOffsets, depths.depthOffsets.length);
+            out.doubles(table.salaries, n);
+            for (byte[] name : names) {
+                out.ints(new int[]{name.length}, 1);
+                out.bytes(name);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putInt(VERSION).putInt(n).putInt(table.childIdx.length)
+                    .putInt(depths.rowsByDepth.length).putInt(depths.depthOffsets.length).putInt(names.length)
+                    .putLong(namesBytes).putLong(sourceSize).putLong(sourceModified).putLong(crc.getValue());
+            header.flip();
+            channel.position(0);
+            while (header.hasRemaining()) channel.write(header);
+            channel.force(false);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Maps and verifies a snapshot.
+     *
+     * @param sourceSize     Expected size of the source CSV, or -1 to skip the staleness check.
+     * @param sourceModified Expected modification time of the source CSV in millis, or -1.
+     * @throws IOException when the snapshot cannot be read, has another version, is stale or fails its checksum.
+     */
+    public static EmployeeSnapshot read(Path file, long sourceSize, long sourceModified) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) throw new IOException("truncated header");
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getLong() != MAGIC) throw new IOException("not a snapshot");
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("unsupported version " + version);
+            int n = header.getInt();
+            int childCount = header.getInt();
+            int reached = header.getInt();
+            int depthLevels = header.getInt();
+            int nameCount = header.getInt();
+            long namesBytes = header.getLong();
+            long storedSize = header.getLong();
+            long storedModified = header.getLong();
+            long storedCrc = header.getLong();
+            if (sourceSize >= 0 && (storedSize != sourceSize || storedModified != sourceModified)) {
+                throw new IOException("source CSV changed");
+            }
+            long intCount = 7L * n + 1 + childCount + reached + depthLevels;
+            long expectedLength = HEADER_BYTES + 4 * intCount + 8L * n + namesBytes;
+            if (n < 0 || channel.size() != expectedLength) throw new IOException("unexpected length");
+
+            CRC32 crc = new CRC32();
+            for (long offset = HEADER_BYTES; offset < expectedLength; offset += MAP_LIMIT) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAP_LIMIT, expectedLength - offset)));
+            }
+            if (crc.getValue() != storedCrc) throw new IOException("checksum mismatch");
+
+            SectionReader in = new SectionReader(channel, HEADER_BYTES);
+            int[] ids = in.ints(n);
+            int[] managerIds = in.ints(n);
+            int[] managerIdx = in.ints(n);
+            int[] firstNames = in.ints(n);
+            int[] lastNames = in.ints(n);
+            int[] childOffsets = in.ints(n + 1);
+            int[] childIdx = in.ints(childCount);
+            int[] depth = in.ints(n);
+            int[] rowsByDepth = in.ints(reached);
+            int[] depthOffsets = in.ints(depthLevels);
+            double[] salaries = in.doubles(n);
+            MappedByteBuffer nameSection = channel.map(FileChannel.MapMode.READ_ONLY, in.offset, namesBytes);
+            nameSection.order(ByteOrder.LITTLE_ENDIAN);
+            NamePool names = new NamePool();
+            for (int code = 0; code < nameCount; code++) {
+                byte[] bytes = new byte[nameSection.getInt()];
+                nameSection.get(bytes);
+                names.intern(new String(bytes, StandardCharsets.UTF_8));
+            }
+
+            EmployeeTable table = new EmployeeTable(n, ids, salaries, managerIds, managerIdx, firstNames, lastNames,
+                    names, childOffsets, childIdx);
+            return new EmployeeSnapshot(table, new DepthIndex(depth, rowsByDepth, depthOffsets));
+        }
+    }
+
+    private static final class SectionWriter {
+        private final FileChannel channel;
+        private final CRC32 crc;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+
+        SectionWriter(FileChannel channel, CRC32 crc) {
+            this.channel = channel;
+            this.crc = crc;
+        }
+
+        void ints(int[] values, int length) throws IOException {
+            for (int i = 0; i < length; ) {
+                if (buffer.remaining() < 4) flush();
+                int count = Math.min(length - i, buffer.remaining() / 4);
+                buffer.asIntBuffer().put(values, i, count);
+                buffer.position(buffer.position() + count * 4);
+                i += count;
+            }
+        }
+
+        void doubles(double[] values, int length) throws IOException {
+            for (int i = 0; i < length; ) {
+                if (buffer.remaining() < 8) flush();
+                int count = Math.min(length - i, buffer.remaining() / 8);
+                buffer.asDoubleBuffer().put(values, i, count);
+                buffer.position(buffer.position() + count * 8);
+                i += count;
+            }
+        }
+
+        void bytes(byte[] values) throws IOException {
+            for (int i = 0; i < values.length; ) {
+                if (!buffer.hasRemaining()) flush();
+                int count = Math.min(values.length - i, buffer.remaining());
+                buffer.put(values, i, count);
+                i += count;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+    }
+
+    private static final class SectionReader {
+        private final FileChannel channel;
+        long offset;
+
+        SectionReader(FileChannel channel, long offset) {
+            this.channel = channel;
+            this.offset = offset;
+        }
+
+        int[] ints(int length) throws IOException {
+            int[] values = new int[length];
+            if (length > 0) {
+                channel.map(FileChannel.MapMode.READ_ONLY, offset, 4L * length).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values);
+            }
+            offset += 4L * length;
+            return values;
+        }
+
+        double[] doubles(int length) throws IOException {
+            double[] values = new double[length];
+            if (length > 0) {
+                channel.map(FileChannel.MapMode.READ_ONLY, offset, 8L * length).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(values);
+            }
+            offset += 8L * length;
+            return values;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.knowledge.manager;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar, primitive-backed employee store.
+ * Row {@code r} is described by {@code ids[r]}, {@code salaries[r]}, {@code managerIds[r]} and the
+ * dictionary-encoded name codes. The manager of a row is resolved once into {@code managerIdx}, and
+ * direct reports are kept in a CSR index: the reports of row {@code r} are
+ * {@code childIdx[childOffsets[r] .. childOffsets[r + 1])}.
+ * <p>
+ * Duplicate ids behave like {@link ManagerSalaryAnalyzer#buildIdToEmployee(List)}: the last row with a
+ * given id is the one found by {@link #rowOf(int)} and is the "active" row for that id, while every row
+ * is still listed as a report of its manager, like {@link ManagerSalaryAnalyzer#buildManagerToReports(List)}.
+ */
+public final class EmployeeTable {
+
+    /**
+     * {@code managerIdx} value for a row with an empty manager column.
+     */
+    public static final int NO_MANAGER = -1;
+    /**
+     * {@code managerIdx} value for a row whose manager id does not exist in the table.
+     */
+    public static final int MISSING_MANAGER = -2;
+
+    final int size;
+    final int[] ids;
+    final double[] salaries;
+    final int[] managerIds;
+    final int[] managerIdx;
+    final int[] firstNames;
+    final int[] lastNames;
+    final NamePool names;
+    final int[] childOffsets;
+    final int[] childIdx;
+    final IntIntHashMap idToRow;
+
+    private EmployeeTable(int size, int[] ids, double[] salaries, int[] managerIds,
+                          int[] firstNames, int[] lastNames, NamePool names) {
+        this.size = size;
+        this.ids = ids;
+        this.salaries = salaries;
+        this.managerIds = managerIds;
+        this.firstNames = firstNames;
+        this.lastNames = lastNames;
+        this.names = names;
+
+        idToRow = new IntIntHashMap(size);
+        for (int r = 0; r < size; r++) idToRow.put(ids[r], r);
+
+        managerIdx = new int[size];
+        childOffsets = new int[size + 1];
+        for (int r = 0; r < size; r++) {
+            int m;
+            if (managerIds[r] == EmployeeRowHandler.NO_MANAGER) {
+                m = NO_MANAGER;
+            } else {
+                m = idToRow.get(managerIds[r]);
+                if (m == IntIntHashMap.MISSING) m = MISSING_MANAGER;
+                else childOffsets[m + 1]++;
+            }
+            managerIdx[r] = m;
+        }
+        for (int r = 0; r < size; r++) childOffsets[r + 1] += childOffsets[r];
+        childIdx = new int[childOffsets[size]];
+        int[] fill = Arrays.copyOf(childOffsets, size);
+        for (int r = 0; r < size; r++) {
+            int m = managerIdx[r];
+            if (m >= 0) childIdx[fill[m]++] = r;
+        }
+    }
+
+    /**
+     * Table over columns and a report index that were computed before, e.g. by {@link EmployeeSnapshot}.
+     */
+    EmployeeTable(int size, int[] ids, double[] salaries, int[] managerIds, int[] managerIdx, int[] firstNames,
+                  int[] lastNames, NamePool names, int[] childOffsets, int[] childIdx) {
+        this.size = size;
+        this.ids = ids;
+        this.salaries = salaries;
+        this.managerIds = managerIds;
+        this.managerIdx = managerIdx;
+        this.firstNames = firstNames;
+        this.lastNames = lastNames;
+        this.names = names;
+        this.childOffsets = childOffsets;
+        this.childIdx = childIdx;
+        idToRow = new IntIntHashMap(size);
+        for (int r = 0; r < size; r++) idToRow.put(ids[r], r);
+    }
+
+    public static EmployeeTable of(List<Employee> employees) {
+        Builder builder = new Builder(employees.size());
+        for (Employee e : employees) {
+            builder.onRow(e.id, e.firstName, e.lastName, e.salary,
+                    e.managerId == null ? EmployeeRowHandler.NO_MANAGER : e.managerId);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int id(int row) {
+        return ids[row];
+    }
+
+    public double salary(int row) {
+        return salaries[row];
+    }
+
+    public boolean hasManager(int row) {
+        return managerIdx[row] != NO_MANAGER;
+    }
+
+    /**
+     * Raw manager id of the row; only meaningful when {@link #hasManager(int)} is true.
+     */
+    public int managerId(int row) {
+        return managerIds[row];
+    }
+
+    /**
+     * Row of the manager, or {@link #NO_MANAGER} / {@link #MISSING_MANAGER}.
+     */
+    public int managerIndex(int row) {
+        return managerIdx[row];
+    }
+
+    public String firstName(int row) {
+        return names.get(firstNames[row]);
+    }
+
+    public String lastName(int row) {
+        return names.get(lastNames[row]);
+    }
+
+    /**
+     * Row holding {@code id}, or -1 when there is no such employee.
+     */
+    public int rowOf(int id) {
+        return idToRow.get(id);
+    }
+
+    /**
+     * True when this row is the one {@link #rowOf(int)} returns for its id (the last duplicate wins).
+     */
+    public boolean isActive(int row) {
+        return idToRow.get(ids[row]) == row;
+    }
+
+    public int reportCount(int row) {
+        return childOffsets[row + 1] - childOffsets[row];
+    }
+
+    public int report(int row, int i) {
+        return childIdx[childOffsets[row] + i];
+    }
+
+    public Employee toEmployee(int row) {
+        return new Employee(ids[row], firstName(row), lastName(row), salaries[row],
+                hasManager(row) ? managerIds[row] : null);
+    }
+
+    /**
+     * Accumulates parsed rows into growable columns; plug it straight into a CSV reader.
+     */
+    public static final class Builder implements EmployeeRowHandler {
+        private final NamePool names = new NamePool();
+        private int size;
+        private int[] ids;
+        private double[] salaries;
+        private int[] managerIds;
+        private int[] firstNames;
+        private int[] lastNames;
+
+        public Builder() {
+            this(1024);
+        }
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            ids = new int[capacity];
+            salaries = new double[capacity];
+            managerIds = new int[capacity];
+            firstNames = new int[capacity];
+            lastNames = new int[capacity];
+        }
+
+        @Override
+        public void onRow(int id, String firstName, String lastName, double salary, int managerId) {
+            if (size == ids.length) {
+                int capacity = size + (size >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                salaries = Arrays.copyOf(salaries, capacity);
+                managerIds = Arrays.copyOf(managerIds, capacity);
+                firstNames = Arrays.copyOf(firstNames, capacity);
+                lastNames = Arrays.copyOf(lastNames, capacity);
+            }
+            ids[size] = id;
+            salaries[size] = salary;
+            managerIds[size] = managerId;
+            firstNames[size] = names.intern(firstName);
+            lastNames[size] = names.intern(lastName);
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public EmployeeTable build() {
+            return new EmployeeTable(size, Arrays.copyOf(ids, size), Arrays.copyOf(salaries, size),
+                    Arrays.copyOf(managerIds, size), Arrays.copyOf(firstNames, size), Arrays.copyOf(lastNames, size), names);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.knowledge.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link ManagerSalaryAnalyzer} analyses, run over an {@link EmployeeTable}.
+ * Everything works on the primitive columns and the CSR report index; the only objects created
+ * are the result messages themselves.
+ */
+public final class EmployeeTableAnalyzer {
+
+    private EmployeeTableAnalyzer() {
+    }
+
+    /**
+     * Runs every check and streams the findings into {@code sink}: structural warnings first, then salary
+     * findings sorted by manager id, then reporting lines longer than {@code depthThreshold} in row order.
+     *
+     * @param table          Employee table.
+     * @param parallelism    Number of worker threads for the salary band check.
+     * @param depthThreshold Maximum allowed number of managers between an employee and the CEO.
+     * @param sink           Destination of the findings.
+     */
+    public static void analyze(EmployeeTable table, int parallelism, int depthThreshold, FindingSink sink) {
+        analyze(table, DepthIndex.build(table), parallelism, depthThreshold, sink);
+    }
+
+    /**
+     * Like {@link #analyze(EmployeeTable, int, int, FindingSink)}, reusing a depth index built before,
+     * e.g. one loaded from an {@link EmployeeSnapshot}.
+     */
+    public static void analyze(EmployeeTable table, DepthIndex depths, int parallelism, int depthThreshold, FindingSink sink) {
+        analyze(table, depths, parallelism, depthThreshold, sink, Metrics.NOOP);
+    }
+
+    /**
+     * Like {@link #analyze(EmployeeTable, DepthIndex, int, int, FindingSink)}, recording the time of each check,
+     * the findings per kind and the index sizes into {@code metrics}.
+     */
+    public static void analyze(EmployeeTable table, DepthIndex depths, int parallelism, int depthThreshold, FindingSink sink,
+                               Metrics metrics) {
+        analyze(table, depths, parallelism, depthThreshold, null, sink, metrics);
+    }
+
+    /**
+     * Like {@link #analyze(EmployeeTable, DepthIndex, int, int, FindingSink, Metrics)}, with the salary findings
+     * limited to the managers selected by {@code top} (all of them when null): the most underpaid, then the most
+     * overpaid, picked during the band check itself.
+     */
+    public static void analyze(EmployeeTable table, DepthIndex depths, int parallelism, int depthThreshold, BandTopK top,
+                               FindingSink sink, Metrics metrics) {
+        metrics.indexSizes(table);
+        sink = metrics.counting(sink);
+        long start = metrics.start();
+        StructureValidator structure = StructureValidator.validate(table);
+        structure.report(sink);
+        metrics.stop("structure", start);
+        start = metrics.start();
+        if (top == null) {
+            SalaryBandAnalyzer.analyze(table, structure, parallelism, sink);
+        } else {
+            BandTopK.Result selected = top.select(table, structure, parallelism);
+            for (Finding finding : selected.getUnderpaid()) sink.accept(finding);
+            for (Finding finding : selected.getOverpaid()) sink.accept(finding);
+        }
+        metrics.stop("salaryBands", start);
+        start = metrics.start();
+        reportDeepHierarchy(table, depths, depthThreshold, sink);
+        metrics.stop("deepLines", start);
+    }
+
+    /**
+     * Structural warnings, then the findings of {@code rules} in row order, all from one pass over the rows.
+     */
+    public static void analyze(EmployeeTable table, DepthIndex depths, RuleSet rules, FindingSink sink, Metrics metrics) {
+        metrics.indexSizes(table);
+        sink = metrics.counting(sink);
+        long start = metrics.start();
+        StructureValidator structure = StructureValidator.validate(table);
+        structure.report(sink);
+        metrics.stop("structure", start);
+        start = metrics.start();
+        rules.evaluate(table, depths, structure, sink);
+        metrics.stop("rules", start);
+    }
+
+    /**
+     * Same checks and messages as {@link ManagerSalaryAnalyzer#analyzeManagerSalary}: structural warnings
+     * first, then salary findings sorted by manager id.
+     *
+     * @param table Employee table.
+     * @return List of analysis results as strings.
+     */
+    public static List<String> analyzeManagerSalary(EmployeeTable table) {
+        return analyzeManagerSalary(table, 1);
+    }
+
+    /**
+     * Like {@link #analyzeManagerSalary(EmployeeTable)}, with the salary band check spread over
+     * {@code parallelism} fork-join workers. The output does not depend on the parallelism.
+     *
+     * @param table       Employee table.
+     * @param parallelism Number of worker threads for the salary band check.
+     * @return List of analysis results as strings.
+     */
+    public static List<String> analyzeManagerSalary(EmployeeTable table, int parallelism) {
+        CollectingFindingSink findings = new CollectingFindingSink();
+        StructureValidator structure = StructureValidator.validate(table);
+        structure.report(findings);
+        SalaryBandAnalyzer.analyze(table, structure, parallelism, findings);
+        List<String> results = findings.getTexts();
+        results.forEach(System.out::println);
+        return results;
+    }
+
+    /**
+     * Same as {@link ManagerSalaryAnalyzer#countManagersToCEO}: every hop counts, including a final hop to a
+     * manager that does not exist.
+     */
+    public static int countManagersToCEO(EmployeeTable table, int row) {
+        int count = 0;
+        int m = table.managerIdx[row];
+        while (m != EmployeeTable.NO_MANAGER) {
+            count++;
+            if (m == EmployeeTable.MISSING_MANAGER) break;
+            m = table.managerIdx[m];
+        }
+        return count;
+    }
+
+    public static void printEmployeesWithDeepHierarchy(EmployeeTable table, int threshold) {
+        FindingWriter out = FindingWriter.toStdout(FindingWriter.Format.TEXT);
+        reportDeepHierarchy(table, DepthIndex.build(table), threshold, out);
+        out.flush();
+    }
+
+    /**
+     * Emits, in row order, every employee with more than {@code threshold} managers above them.
+     * Depths come from the precomputed index, so no reporting line is walked; employees caught in a
+     * circular reporting structure have no depth and are left to the cycle warnings.
+     */
+    public static void reportDeepHierarchy(EmployeeTable table, DepthIndex depths, int threshold, FindingSink sink) {
+        for (int r = 0; r < table.size; r++) {
+            int count = depths.depth(r);
+            if (count > threshold) {
+                sink.accept(new Finding.DeepReportingLine(table.ids[r], table.firstName(r), table.lastName(r), count, threshold));
+            }
+        }
+    }
+}
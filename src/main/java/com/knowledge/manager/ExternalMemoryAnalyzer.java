@@ -0,0 +1,692 @@
+package com.knowledge.manager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Runs the same checks as {@link EmployeeTableAnalyzer#analyze} on a CSV that is too large to hold in memory,
+ * with a working set bounded by a memory budget. The findings and their order are the same.
+ * <p>
+ * The CSV is streamed once and every row is spilled twice, hash-partitioned by its own id ("nodes") and by its
+ * manager id ("links"), so a manager and all of their reports land in the same partition. The number of
+ * partitions is picked so that one partition's hash maps fit in the budget. Then, one partition at a time:
+ * <ul>
+ *     <li>the salary band check sums the links per manager id and joins them with the nodes;</li>
+ *     <li>depths are found by pointer jumping: every id holds "depth = dist + depth(anc)" and each round joins
+ *     the pending ids with the state of their {@code anc}, doubling the hop length, so a reporting line of
+ *     length L resolves in about log2(L) rounds. Ids still pending when a round resolves nothing are in or
+ *     below a circular reporting structure;</li>
+ *     <li>each row's depth is its manager's depth plus one, joined over the links.</li>
+ * </ul>
+ * Each partition writes its findings sorted by manager id or row, and the partitions are k-way merged into the
+ * sink. Spill files go to a temporary directory that is removed afterwards.
+ */
+public final class ExternalMemoryAnalyzer {
+
+    // Rough heap per row of one partition in the join passes: hash map slots plus the aggregate columns.
+    private static final int BYTES_PER_ROW = 64;
+    // Smallest plausible CSV line, used to estimate the row count from the file size before reading it.
+    private static final int MIN_BYTES_PER_LINE = 16;
+    private static final int MAX_PARTITIONS = 4096;
+
+    private final long memoryBudget;
+    private final Path spillParent;
+    private int partitions;
+    private int depthRounds;
+
+    /**
+     * @param memoryBudget Bytes of heap the analysis may use for its hash maps and buffers.
+     * @param spillParent  Directory for the spill files, or null for the system temporary directory.
+     */
+    public ExternalMemoryAnalyzer(long memoryBudget, Path spillParent) {
+        if (memoryBudget <= 0) throw new IllegalArgumentException("memoryBudget must be positive: " + memoryBudget);
+        this.memoryBudget = memoryBudget;
+        this.spillParent = spillParent;
+    }
+
+    /**
+     * Number of partitions used by the last run.
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Number of pointer-jumping rounds used by the last run.
+     */
+    public int getDepthRounds() {
+        return depthRounds;
+    }
+
+    public void analyze(Path csv, int depthThreshold, FindingSink sink) throws IOException {
+        analyze(csv, depthThreshold, sink, Metrics.NOOP);
+    }
+
+    /**
+     * Streams the findings of {@code csv} into {@code sink}: structural warnings, salary findings sorted by
+     * manager id, then reporting lines longer than {@code depthThreshold} in row order.
+     */
+    public void analyze(Path csv, int depthThreshold, FindingSink sink, Metrics metrics) throws IOException {
+        long estimatedRows = Files.size(csv) / MIN_BYTES_PER_LINE + 1;
+        partitions = (int) Math.max(1, Math.min(MAX_PARTITIONS, estimatedRows * BYTES_PER_ROW / memoryBudget + 1));
+        int bufferSize = (int) Math.max(4096, Math.min(65536, memoryBudget / (8L * partitions)));
+        depthRounds = 0;
+        sink = metrics.counting(sink);
+        metrics.indexSize("partitions", partitions);
+
+        Path dir = spillParent == null ? Files.createTempDirectory("org-spill") : Files.createTempDirectory(spillParent, "org-spill");
+        try {
+            Run run = new Run(dir, bufferSize);
+            long start = metrics.start();
+            run.partition(csv, metrics);
+            metrics.stop("parse", start);
+            start = metrics.start();
+            for (int p = 0; p < partitions; p++) run.joinReports(p);
+            metrics.stop("salaryBands", start);
+            start = metrics.start();
+            run.resolveDepths();
+            metrics.stop("depth", start);
+            metrics.increment("depthRounds", depthRounds);
+            start = metrics.start();
+            for (int p = 0; p < partitions; p++) run.joinDepths(p, depthThreshold);
+            metrics.stop("deepLines", start);
+            start = metrics.start();
+            run.emit(sink, depthThreshold);
+            metrics.stop("merge", start);
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    /**
+     * Partition of a key. Uses the high bits of a different hash than {@link IntIntHashMap}, so the keys of one
+     * partition still spread over the map's slots.
+     */
+    static int partitionOf(int key, int partitions) {
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return (int) (((h & 0xFFFFFFFFL) * partitions) >>> 32);
+    }
+
+    /**
+     * Spill files and global counts of one run.
+     */
+    private final class Run {
+        final Path dir;
+        final int bufferSize;
+        // row, id, salary, managerId, firstName, lastName; by id
+        Spill nodes;
+        // row, id, salary, managerId, firstName, lastName; by managerId
+        Spill links;
+        // id, done, anc, dist; by id
+        Spill state;
+        // managerId, salary, firstName, lastName, reports, sum, min, max, root; by id, sorted by id
+        Spill bands;
+        // row, id; by id, sorted by row
+        Spill multipleManagers;
+        // row, id, firstName, lastName; by id, sorted by row
+        Spill cycles;
+        // row, id, firstName, lastName, depth; by managerId, sorted by row
+        Spill deep;
+        int rootCount;
+        long distinctIds;
+        // The first three active rows, enough for the two-person company check.
+        final List<Node> firstActive = new ArrayList<>();
+
+        Run(Path dir, int bufferSize) {
+            this.dir = dir;
+            this.bufferSize = bufferSize;
+        }
+
+        void partition(Path csv, Metrics metrics) throws IOException {
+            nodes = new Spill(dir, "nodes", partitions, bufferSize);
+            links = new Spill(dir, "links", partitions, bufferSize);
+            int[] row = new int[1];
+            IOException[] failure = new IOException[1];
+            EmployeeCsvReader reader = new EmployeeCsvReader((id, firstName, lastName, salary, managerId) -> {
+                if (failure[0] != null) return;
+                try {
+                    Node.write(nodes.to(partitionOf(id, partitions)), row[0], id, salary, managerId, firstName, lastName);
+                    Node.write(links.to(partitionOf(managerId, partitions)), row[0], id, salary, managerId, firstName, lastName);
+                    row[0]++;
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            try {
+                reader.read(csv);
+            } finally {
+                nodes.close();
+                links.close();
+            }
+            if (failure[0] != null) throw failure[0];
+            metrics.rows(reader.getRowsRead(), reader.getRowsSkipped());
+        }
+
+        /**
+         * Salary bands, multiple managers and the initial depth state of the ids in partition {@code p}.
+         */
+        void joinReports(int p) throws IOException {
+            if (p == 0) {
+                state = new Spill(dir, "state0", partitions, bufferSize);
+                bands = new Spill(dir, "bands", partitions, bufferSize);
+                multipleManagers = new Spill(dir, "multi", partitions, bufferSize);
+            }
+            IntIntHashMap activeRow = new IntIntHashMap(nodes.count(p));
+            IntIntHashMap listed = new IntIntHashMap(nodes.count(p));
+            try (DataInputStream in = nodes.open(p)) {
+                for (int i = nodes.count(p); i > 0; i--) {
+                    Node node = Node.read(in);
+                    activeRow.put(node.id, node.row);
+                    if (node.managerId == EmployeeRowHandler.NO_MANAGER) continue;
+                    // 0 = listed once, 1 = listed again and already warned about
+                    int previous = listed.put(node.id, 0);
+                    if (previous != IntIntHashMap.MISSING) {
+                        listed.put(node.id, 1);
+                        if (previous == 0) {
+                            DataOutputStream out = multipleManagers.to(p);
+                            out.writeInt(node.row);
+                            out.writeInt(node.id);
+                        }
+                    }
+                }
+            }
+            listed = null;
+
+            // Reports of every manager id in the partition, summed in row order like the in-memory index.
+            IntIntHashMap slotOf = new IntIntHashMap(Math.max(4, links.count(p) / 2));
+            int slots = 0;
+            int[] count = new int[16];
+            double[] sum = new double[16];
+            double[] min = new double[16];
+            double[] max = new double[16];
+            try (DataInputStream in = links.open(p)) {
+                for (int i = links.count(p); i > 0; i--) {
+                    int row = in.readInt();
+                    in.readInt();
+                    double salary = in.readDouble();
+                    int managerId = in.readInt();
+                    skipString(in);
+                    skipString(in);
+                    if (managerId == EmployeeRowHandler.NO_MANAGER) continue;
+                    int slot = slotOf.get(managerId);
+                    if (slot == IntIntHashMap.MISSING) {
+                        slot = slots++;
+                        slotOf.put(managerId, slot);
+                        if (slot == count.length) {
+                            count = Arrays.copyOf(count, slot * 2);
+                            sum = Arrays.copyOf(sum, slot * 2);
+                            min = Arrays.copyOf(min, slot * 2);
+                            max = Arrays.copyOf(max, slot * 2);
+                        }
+                        min[slot] = Double.MAX_VALUE;
+                        max[slot] = -Double.MAX_VALUE;
+                    }
+                    count[slot]++;
+                    sum[slot] += salary;
+                    if (salary < min[slot]) min[slot] = salary;
+                    if (salary > max[slot]) max[slot] = salary;
+                }
+            }
+
+            List<Finding.SalaryBand> found = new ArrayList<>();
+            List<Boolean> foundRoot = new ArrayList<>();
+            try (DataInputStream in = nodes.open(p)) {
+                for (int i = nodes.count(p); i > 0; i--) {
+                    Node node = Node.read(in);
+                    if (activeRow.get(node.id) != node.row) continue;
+                    boolean root = node.managerId == EmployeeRowHandler.NO_MANAGER;
+                    distinctIds++;
+                    if (root) rootCount++;
+                    if (firstActive.size() < 3) firstActive.add(node);
+                    DataOutputStream out = state.to(p);
+                    out.writeInt(node.id);
+                    out.writeBoolean(root);
+                    out.writeInt(node.managerId);
+                    out.writeInt(root ? 0 : 1);
+
+                    int slot = slotOf.get(node.id);
+                    if (slot == IntIntHashMap.MISSING) continue;
+                    Finding finding = SalaryBandAnalyzer.band(node.id, node.firstName, node.lastName, node.salary,
+                            count[slot], sum[slot], min[slot], max[slot]);
+                    if (finding == null) continue;
+                    found.add((Finding.SalaryBand) finding);
+                    foundRoot.add(root);
+                }
+            }
+            // Whether a root is the CEO depends on the global root count, so roots are kept and decided at the merge.
+            Integer[] order = new Integer[found.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Integer.compare(found.get(a).getManagerId(), found.get(b).getManagerId()));
+            for (int i : order) {
+                Finding.SalaryBand band = found.get(i);
+                DataOutputStream out = bands.to(p);
+                int slot = slotOf.get(band.getManagerId());
+                out.writeInt(band.getManagerId());
+                out.writeDouble(band.getSalary());
+                writeString(out, band.getFirstName());
+                writeString(out, band.getLastName());
+                out.writeInt(count[slot]);
+                out.writeDouble(sum[slot]);
+                out.writeDouble(min[slot]);
+                out.writeDouble(max[slot]);
+                out.writeBoolean(foundRoot.get(i));
+            }
+            if (p == partitions - 1) {
+                state.close();
+                bands.close();
+                multipleManagers.close();
+            }
+        }
+
+        /**
+         * Pointer jumping until a round resolves no id.
+         */
+        void resolveDepths() throws IOException {
+            while (true) {
+                Spill requests = new Spill(dir, "requests" + depthRounds, partitions, bufferSize);
+                long pending = 0;
+                for (int p = 0; p < partitions; p++) {
+                    try (DataInputStream in = state.open(p)) {
+                        for (int i = state.count(p); i > 0; i--) {
+                            int id = in.readInt();
+                            boolean done = in.readBoolean();
+                            int anc = in.readInt();
+                            int dist = in.readInt();
+                            if (done) continue;
+                            DataOutputStream out = requests.to(partitionOf(anc, partitions));
+                            out.writeInt(id);
+                            out.writeInt(anc);
+                            out.writeInt(dist);
+                            pending++;
+                        }
+                    }
+                }
+                requests.close();
+                if (pending == 0) {
+                    requests.delete();
+                    return;
+                }
+
+                depthRounds++;
+                Spill next = new Spill(dir, "state" + depthRounds, partitions, bufferSize);
+                long resolved = 0;
+                for (int p = 0; p < partitions; p++) {
+                    StateTable table = StateTable.load(state, p);
+                    for (int i = 0; i < table.size; i++) {
+                        if (table.done[i]) table.write(next.to(p), i);
+                    }
+                    try (DataInputStream in = requests.open(p)) {
+                        for (int i = requests.count(p); i > 0; i--) {
+                            int id = in.readInt();
+                            int anc = in.readInt();
+                            int dist = in.readInt();
+                            int slot = table.slotOf.get(anc);
+                            DataOutputStream out = next.to(partitionOf(id, partitions));
+                            out.writeInt(id);
+                            if (slot == IntIntHashMap.MISSING) {
+                                // The hop to a manager that does not exist was already counted.
+                                out.writeBoolean(true);
+                                out.writeInt(anc);
+                                out.writeInt(dist);
+                                resolved++;
+                            } else {
+                                out.writeBoolean(table.done[slot]);
+                                out.writeInt(table.anc[slot]);
+                                out.writeInt((int) Math.min(Integer.MAX_VALUE, (long) dist + table.dist[slot]));
+                                if (table.done[slot]) resolved++;
+                            }
+                        }
+                    }
+                }
+                next.close();
+                requests.delete();
+                state.delete();
+                state = next;
+                if (resolved == 0) return;
+            }
+        }
+
+        /**
+         * Depth of every row whose manager id is in partition {@code p}, and the circular ids of the partition.
+         */
+        void joinDepths(int p, int threshold) throws IOException {
+            if (p == 0) {
+                deep = new Spill(dir, "deep", partitions, bufferSize);
+                cycles = new Spill(dir, "cycles", partitions, bufferSize);
+            }
+            StateTable table = StateTable.load(state, p);
+            try (DataInputStream in = links.open(p)) {
+                for (int i = links.count(p); i > 0; i--) {
+                    Node node = Node.read(in);
+                    int depth;
+                    if (node.managerId == EmployeeRowHandler.NO_MANAGER) {
+                        depth = 0;
+                    } else {
+                        int slot = table.slotOf.get(node.managerId);
+                        if (slot == IntIntHashMap.MISSING) depth = 1;
+                        else if (!table.done[slot]) continue;
+                        else depth = table.dist[slot] + 1;
+                    }
+                    if (depth <= threshold) continue;
+                    DataOutputStream out = deep.to(p);
+                    out.writeInt(node.row);
+                    out.writeInt(node.id);
+                    writeString(out, node.firstName);
+                    writeString(out, node.lastName);
+                    out.writeInt(depth);
+                }
+            }
+
+            IntIntHashMap activeRow = new IntIntHashMap(nodes.count(p));
+            try (DataInputStream in = nodes.open(p)) {
+                for (int i = nodes.count(p); i > 0; i--) {
+                    int row = in.readInt();
+                    int id = in.readInt();
+                    in.readDouble();
+                    in.readInt();
+                    skipString(in);
+                    skipString(in);
+                    activeRow.put(id, row);
+                }
+            }
+            try (DataInputStream in = nodes.open(p)) {
+                for (int i = nodes.count(p); i > 0; i--) {
+                    Node node = Node.read(in);
+                    if (activeRow.get(node.id) != node.row || table.done[table.slotOf.get(node.id)]) continue;
+                    DataOutputStream out = cycles.to(p);
+                    out.writeInt(node.row);
+                    out.writeInt(node.id);
+                    writeString(out, node.firstName);
+                    writeString(out, node.lastName);
+                }
+            }
+            if (p == partitions - 1) {
+                deep.close();
+                cycles.close();
+            }
+        }
+
+        /**
+         * Merges the partitions' findings into the sink in the in-memory order.
+         */
+        void emit(FindingSink sink, int threshold) throws IOException {
+            merge(multipleManagers, in -> {
+                int row = in.readInt();
+                return new Keyed(row, new Finding.MultipleManagers(in.readInt()));
+            }, sink);
+            merge(cycles, in -> {
+                int row = in.readInt();
+                return new Keyed(row, new Finding.CircularReporting(in.readInt(), readString(in), readString(in)));
+            }, sink);
+            if (rootCount > 1) sink.accept(new Finding.MultipleCeo(rootCount));
+            if (distinctIds == 2) {
+                firstActive.sort((a, b) -> Integer.compare(a.row, b.row));
+                for (Node node : firstActive) {
+                    if (node.managerId != EmployeeRowHandler.NO_MANAGER || rootCount != 1) {
+                        sink.accept(new Finding.NotCeo(node.id, node.firstName, node.lastName));
+                    }
+                }
+            }
+            merge(bands, in -> {
+                int id = in.readInt();
+                double salary = in.readDouble();
+                String firstName = readString(in);
+                String lastName = readString(in);
+                Finding finding = SalaryBandAnalyzer.band(id, firstName, lastName, salary,
+                        in.readInt(), in.readDouble(), in.readDouble(), in.readDouble());
+                boolean ceo = in.readBoolean() && rootCount == 1;
+                return new Keyed(id, ceo ? null : finding);
+            }, sink);
+            merge(deep, in -> {
+                int row = in.readInt();
+                int id = in.readInt();
+                String firstName = readString(in);
+                String lastName = readString(in);
+                return new Keyed(row, new Finding.DeepReportingLine(id, firstName, lastName, in.readInt(), threshold));
+            }, sink);
+        }
+    }
+
+    private interface RecordReader {
+        Keyed read(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * Finding with the key its partition is sorted by; a null finding is merged and dropped.
+     */
+    private static final class Keyed {
+        final long key;
+        final Finding finding;
+
+        Keyed(long key, Finding finding) {
+            this.key = key;
+            this.finding = finding;
+        }
+    }
+
+    private static final class Cursor {
+        final DataInputStream in;
+        int remaining;
+        Keyed current;
+
+        Cursor(DataInputStream in, int remaining) {
+            this.in = in;
+            this.remaining = remaining;
+        }
+    }
+
+    /**
+     * k-way merge of the sorted partitions of {@code spill}.
+     */
+    private static void merge(Spill spill, RecordReader reader, FindingSink sink) throws IOException {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>((a, b) -> Long.compare(a.current.key, b.current.key));
+        List<Cursor> open = new ArrayList<>();
+        try {
+            for (int p = 0; p < spill.partitions(); p++) {
+                if (spill.count(p) == 0) continue;
+                Cursor cursor = new Cursor(spill.open(p), spill.count(p));
+                open.add(cursor);
+                cursor.current = reader.read(cursor.in);
+                cursor.remaining--;
+                heads.add(cursor);
+            }
+            while (!heads.isEmpty()) {
+                Cursor cursor = heads.poll();
+                if (cursor.current.finding != null) sink.accept(cursor.current.finding);
+                if (cursor.remaining > 0) {
+                    cursor.current = reader.read(cursor.in);
+                    cursor.remaining--;
+                    heads.add(cursor);
+                }
+            }
+        } finally {
+            for (Cursor cursor : open) cursor.in.close();
+        }
+    }
+
+    /**
+     * One spilled row.
+     */
+    private static final class Node {
+        final int row;
+        final int id;
+        final double salary;
+        final int managerId;
+        final String firstName;
+        final String lastName;
+
+        Node(int row, int id, double salary, int managerId, String firstName, String lastName) {
+            this.row = row;
+            this.id = id;
+            this.salary = salary;
+            this.managerId = managerId;
+            this.firstName = firstName;
+            this.lastName = lastName;
+        }
+
+        static void write(DataOutputStream out, int row, int id, double salary, int managerId,
+                          String firstName, String lastName) throws IOException {
+            out.writeInt(row);
+            out.writeInt(id);
+            out.writeDouble(salary);
+            out.writeInt(managerId);
+            writeString(out, firstName);
+            writeString(out, lastName);
+        }
+
+        static Node read(DataInputStream in) throws IOException {
+            return new Node(in.readInt(), in.readInt(), in.readDouble(), in.readInt(), readString(in), readString(in));
+        }
+    }
+
+    /**
+     * Writes a name as its UTF-8 length and bytes; unlike {@link DataOutputStream#writeUTF} there is no
+     * 64 KB limit, so every name the CSV readers accept can be spilled.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(DataInputStream in) throws IOException {
+        int remaining = in.readInt();
+        while (remaining > 0) {
+            int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) throw new EOFException("Truncated spill file");
+            remaining -= skipped;
+        }
+    }
+
+    /**
+     * Depth state of one partition's ids, loaded for a join.
+     */
+    private static final class StateTable {
+        final int size;
+        final IntIntHashMap slotOf;
+        final boolean[] done;
+        final int[] anc;
+        final int[] dist;
+        final int[] ids;
+
+        private StateTable(int size) {
+            this.size = size;
+            slotOf = new IntIntHashMap(size);
+            done = new boolean[size];
+            anc = new int[size];
+            dist = new int[size];
+            ids = new int[size];
+        }
+
+        static StateTable load(Spill state, int p) throws IOException {
+            StateTable table = new StateTable(state.count(p));
+            try (DataInputStream in = state.open(p)) {
+                for (int i = 0; i < table.size; i++) {
+                    table.ids[i] = in.readInt();
+                    table.done[i] = in.readBoolean();
+                    table.anc[i] = in.readInt();
+                    table.dist[i] = in.readInt();
+                    table.slotOf.put(table.ids[i], i);
+                }
+            }
+            return table;
+        }
+
+        void write(DataOutputStream out, int slot) throws IOException {
+            out.writeInt(ids[slot]);
+            out.writeBoolean(done[slot]);
+            out.writeInt(anc[slot]);
+            out.writeInt(dist[slot]);
+        }
+    }
+
+    /**
+     * One set of partition files, written through buffered streams and then read back partition by partition.
+     * Record counts are kept alongside so readers know where each file ends.
+     */
+    private static final class Spill {
+        private final Path[] files;
+        private final DataOutputStream[] out;
+        private final int[] counts;
+
+        Spill(Path dir, String name, int partitions, int bufferSize) throws IOException {
+            files = new Path[partitions];
+            out = new DataOutputStream[partitions];
+            counts = new int[partitions];
+            for (int p = 0; p < partitions; p++) {
+                files[p] = dir.resolve(name + "-" + p + ".bin");
+                out[p] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(files[p]), bufferSize));
+            }
+        }
+
+        int partitions() {
+            return files.length;
+        }
+
+        /**
+         * Stream of partition {@code p}, counting one record.
+         */
+        DataOutputStream to(int p) {
+            counts[p]++;
+            return out[p];
+        }
+
+        int count(int p) {
+            return counts[p];
+        }
+
+        DataInputStream open(int p) throws IOException {
+            return new DataInputStream(new BufferedInputStream(Files.newInputStream(files[p]), 65536));
+        }
+
+        void delete() throws IOException {
+            close();
+            for (Path file : files) Files.deleteIfExists(file);
+        }
+
+        void close() throws IOException {
+            for (int p = 0; p < out.length; p++) {
+                if (out[p] != null) {
+                    out[p].close();
+                    out[p] = null;
+                }
+            }
+        }
+    }
+
+    private static void deleteTree(Path dir) {
+        try {
+            if (Files.isDirectory(dir)) {
+                try (Stream<Path> files = Files.list(dir)) {
+                    for (Path file : (Iterable<Path>) files::iterator) Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            System.err.println("Could not remove spill directory " + dir + ": " + e.getMessage());
+        }
+    }
+}
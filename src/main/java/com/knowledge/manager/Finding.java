@@ -0,0 +1,359 @@
+package com.knowledge.manager;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * One result of the analysis, with its numbers kept as numbers.
+ * {@link #toText()} renders the same message the analyzer has always printed; the structured writers in
+ * {@link FindingWriter} use {@link #visitFields(FieldVisitor)} instead. Every finding prints as its message.
+ */
+public abstract class Finding {
+
+    public enum Kind {
+        UNDERPAID,
+        OVERPAID,
+        DEEP_REPORTING_LINE,
+        CIRCULAR_REPORTING,
+        MULTIPLE_CEO,
+        MULTIPLE_MANAGERS,
+        NOT_CEO,
+        NO_SUBORDINATES,
+        RULE_VIOLATION,
+        DUPLICATE_ID
+    }
+
+    /**
+     * Receives the fields of a finding in a fixed order, without boxing.
+     */
+    public interface FieldVisitor {
+        void field(String name, long value);
+
+        void field(String name, double value);
+
+        void field(String name, String value);
+
+        void field(String name, boolean value);
+    }
+
+    public abstract Kind getKind();
+
+    public abstract String toText();
+
+    public abstract void visitFields(FieldVisitor visitor);
+
+    @Override
+    public final String toString() {
+        return toText();
+    }
+
+    /**
+     * Manager whose salary is outside 1.2x - 1.5x of the average salary of their direct reports.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode(callSuper = false)
+    @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+    public static final class SalaryBand extends Finding {
+        Kind kind;
+        int managerId;
+        String firstName;
+        String lastName;
+        double salary;
+        // Lower bound for UNDERPAID, upper bound for OVERPAID.
+        double expectedSalary;
+        double averageReportSalary;
+        int reportCount;
+        double minReportSalary;
+        double maxReportSalary;
+
+        public double getDifference() {
+            return kind == Kind.UNDERPAID ? expectedSalary - salary : salary - expectedSalary;
+        }
+
+        @Override
+        public String toText() {
+            return "ManagerId: " + managerId +
+                    " (" + firstName + " " + lastName + ")" +
+                    (kind == Kind.UNDERPAID ? " is UNDERPAID by " : " is OVERPAID by ") + Math.round(getDifference()) +
+                    " (earns " + Math.round(salary) +
+                    (kind == Kind.UNDERPAID ? ", should earn at least " : ", should earn no more than ") + Math.round(expectedSalary) + ")" +
+                    ", average subordinate salary: " + Math.round(averageReportSalary);
+        }
+
+        @Override
+        public void visitFields(FieldVisitor visitor) {
+            visitor.field("employeeId", managerId);
+            visitor.field("firstName", firstName);
+            visitor.field("lastName", lastName);
+            visitor.field("salary", salary);
+            visitor.field("expectedSalary", expectedSalary);
+            visitor.field("difference", getDifference());
+            visitor.field("averageReportSalary", averageReportSalary);
+            visitor.field("reportCount", reportCount);
+            visitor.field("minReportSalary", minReportSalary);
+            visitor.field("maxReportSalary", maxReportSalary);
+        }
+    }
+
+    /**
+     * Employee with more than the allowed number of managers between them and the CEO.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode(callSuper = false)
+    @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+    public static final class DeepReportingLine extends Finding {
+        int employeeId;
+        String firstName;
+        String lastName;
+        int managerCount;
+        int threshold;
+
+        @Override
+        public Kind getKind() {
+            return Kind.DEEP_REPORTING_LINE;
+        }
+
+        @Override
+        public String toText() {
+            return "EmployeeId: " + employeeId +
+                    " (" + firstName + " " + lastName + ")" +
+                    " has " + managerCount + " managers between them and the CEO.";
+        }
+
+        @Override
+        public void visitFields(FieldVisitor visitor) {
+            visitor.field("employeeId", employeeId);
+            visitor.field("firstName", firstName);
+            visitor.field("lastName", lastName);
+            visitor.field("managerCount", managerCount);
+            visitor.field("threshold", threshold);
+            visitor.field("excess", managerCount - threshold);
+        }
+    }
+
+    /**
+     * Employee whose chain of managers runs into a loop.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode(callSuper = false)
+    @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+    public static final class CircularReporting extends Finding {
+        int employeeId;
+        String firstName;
+        String lastName;
+
+        @Override
+        public Kind getKind() {
+            return Kind.CIRCULAR_REPORTING;
+        }
+
+        @Override
+        public String toText() {
+            return "WARNING: EmployeeId: " + employeeId + " (" + firstName + " " + lastName + ") is in a circular reporting structure.";
+        }
+
+        @Override
+        public void visitFields(FieldVisitor visitor) {
+            visitor.field("employeeId", employeeId);
+            visitor.field("firstName", firstName);
+            visitor.field("lastName", lastName);
+        }
+    }
+
+    /**
+     * More than one employee without a manager.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode(callSuper = false)
+    @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+    public static final class MultipleCeo extends Finding {
+        long ceoCount;
+
+        @Override
+        public Kind getKind() {
+            return Kind.MULTIPLE_CEO;
+        }
+
+        @Override
+        public String toText() {
+            return "WARNING: More than one CEO detected in the company.";
+        }
+
+        @Override
+        public void visitFields(FieldVisitor visitor) {
+            visitor.field("ceoCount", ceoCount);
+        }
+    }
+
+    /**
+     * Employee listed as a report of more than one manager.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode(callSuper = false)
+    @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+    public static final class MultipleManagers extends Finding {
+        int employeeId;
+
+        @Override
+        public Kind getKind() {
+            return Kind.MULTIPLE_MANAGERS;
+        }
+
+        @Override
+        public String toText() {
+            return "WARNING: EmployeeId: " + employeeId + " has multiple managers (not supported).";
+        }
+
+        @Override
+        public void visitFields(FieldVisitor visitor) {
+            visitor.field("employeeId", employeeId);
+        }
+    }
+
+    /**
+     * In a two-person company, the employee that is not the CEO.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode(callSuper = false)
+    @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+    public static final class NotCeo extends Finding {
+        int employeeId;
+        String firstName;
+        String lastName;
+
+        @Override
+        public Kind getKind() {
+            return Kind.NOT_CEO;
+        }
+
+        @Override
+        public String toText() {
+            return "WARNING: EmployeeId: " + employeeId + " (" + firstName + " " + lastName + ") has no subordinates and is not CEO.";
+        }
+
+        @Override
+        public void visitFields(FieldVisitor visitor) {
+            visitor.field("employeeId", employeeId);
+            visitor.field("firstName", firstName);
+            visitor.field("lastName", lastName);
+        }
+    }
+
+    /**
+     * Manager listed with an empty list of reports.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode(callSuper = false)
+    @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+    public static final class NoSubordinates extends Finding {
+        int employeeId;
+        String firstName;
+        String lastName;
+
+        @Override
+        public Kind getKind() {
+            return Kind.NO_SUBORDINATES;
+        }
+
+        @Override
+        public String toText() {
+            return "ManagerId: " + employeeId + " (" + firstName + " " + lastName + ") has no subordinates.";
+        }
+
+        @Override
+        public void visitFields(FieldVisitor visitor) {
+            visitor.field("employeeId", employeeId);
+            visitor.field("firstName", firstName);
+            visitor.field("lastName", lastName);
+        }
+    }
+
+    /**
+     * Employee outside the limit of a configured {@link OrgRule}, e.g. too many direct reports.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode(callSuper = false)
+    @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+    public static final class RuleViolation extends Finding {
+        String rule;
+        int employeeId;
+        String firstName;
+        String lastName;
+        // What was measured, e.g. "direct reports", and whether it is above or below the limit.
+        String measure;
+        double value;
+        double limit;
+        boolean aboveLimit;
+
+        @Override
+        public Kind getKind() {
+            return Kind.RULE_VIOLATION;
+        }
+
+        @Override
+        public String toText() {
+            return "Rule " + rule + ": EmployeeId: " + employeeId + " (" + firstName + " " + lastName + ") has " +
+                    measure + " " + format(value) + (aboveLimit ? ", above the maximum of " : ", below the minimum of ") +
+                    format(limit) + ".";
+        }
+
+        @Override
+        public void visitFields(FieldVisitor visitor) {
+            visitor.field("rule", rule);
+            visitor.field("employeeId", employeeId);
+            visitor.field("firstName", firstName);
+            visitor.field("lastName", lastName);
+            visitor.field("measure", measure);
+            visitor.field("value", value);
+            visitor.field("limit", limit);
+            visitor.field("aboveLimit", aboveLimit);
+        }
+
+        private static String format(double value) {
+            return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value)
+                    : String.valueOf(Math.round(value * 100) / 100.0);
+        }
+    }
+
+    /**
+     * Id found in more than one input file; the row read last is the one analyzed.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode(callSuper = false)
+    @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+    public static final class DuplicateId extends Finding {
+        int employeeId;
+        String source;
+        String otherSource;
+
+        @Override
+        public Kind getKind() {
+            return Kind.DUPLICATE_ID;
+        }
+
+        @Override
+        public String toText() {
+            return "WARNING: EmployeeId: " + employeeId + " appears in both " + source + " and " + otherSource +
+                    "; the row from " + otherSource + " is used.";
+        }
+
+        @Override
+        public void visitFields(FieldVisitor visitor) {
+            visitor.field("employeeId", employeeId);
+            visitor.field("source", source);
+            visitor.field("otherSource", otherSource);
+        }
+    }
+}
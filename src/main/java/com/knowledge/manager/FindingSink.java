@@ -0,0 +1,12 @@
+package com.knowledge.manager;
+
+/**
+ * Destination for analysis findings. Analyzers push findings as they are produced, so a sink decides
+ * whether they are streamed out ({@link FindingWriter}) or kept ({@link CollectingFindingSink}).
+ * Sinks are called from one thread at a time.
+ */
+@FunctionalInterface
+public interface FindingSink {
+
+    void accept(Finding finding);
+}
@@ -0,0 +1,200 @@
+package com.knowledge.manager;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Streams findings through a buffered writer as they arrive, without keeping them.
+ * <ul>
+ *     <li>{@link Format#TEXT}: the classic one-message-per-line report.</li>
+ *     <li>{@link Format#CSV}: a header and one row per finding with a fixed column set; unused columns are empty.</li>
+ *     <li>{@link Format#JSON_LINES}: one JSON object per line holding the kind and the fields of that kind.</li>
+ * </ul>
+ * Not thread-safe; analyzers emit from a single thread.
+ */
+public class FindingWriter implements FindingSink, Closeable {
+
+    public enum Format {
+        TEXT, CSV, JSON_LINES;
+
+        public static Format parse(String value) {
+            switch (value.toLowerCase(Locale.ROOT)) {
+                case "text":
+                    return TEXT;
+                case "csv":
+                    return CSV;
+                case "json":
+                case "jsonl":
+                    return JSON_LINES;
+                default:
+                    throw new IllegalArgumentException("Unknown output format: " + value + " (expected text, csv or jsonl)");
+            }
+        }
+    }
+
+    static final String[] CSV_COLUMNS = {
+            "kind", "employeeId", "firstName", "lastName", "salary", "expectedSalary", "difference",
+            "averageReportSalary", "reportCount", "minReportSalary", "maxReportSalary",
+            "managerCount", "threshold", "excess", "ceoCount", "rule", "measure", "value", "limit",
+            "aboveLimit", "source", "otherSource"
+    };
+
+    private final Writer out;
+    private final Format format;
+    private final String[] csvRow = new String[CSV_COLUMNS.length];
+    private final StringBuilder line = new StringBuilder(256);
+    private final Finding.FieldVisitor csvVisitor = new CsvVisitor();
+    private final Finding.FieldVisitor jsonVisitor = new JsonVisitor();
+
+    public FindingWriter(Writer out, Format format) {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+        this.format = format;
+        if (format == Format.CSV) {
+            line.append(String.join(",", CSV_COLUMNS));
+            writeLine();
+        }
+    }
+
+    /**
+     * Writer over standard output; flush it when done, closing it would close System.out.
+     */
+    public static FindingWriter toStdout(Format format) {
+        return new FindingWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()), format);
+    }
+
+    @Override
+    public void accept(Finding finding) {
+        switch (format) {
+            case TEXT:
+                line.append(finding.toText());
+                break;
+            case CSV:
+                Arrays.fill(csvRow, null);
+                csvRow[0] = finding.getKind().name();
+                finding.visitFields(csvVisitor);
+                for (int i = 0; i < csvRow.length; i++) {
+                    if (i > 0) line.append(',');
+                    if (csvRow[i] != null) line.append(csvRow[i]);
+                }
+                break;
+            default:
+                line.append("{\"kind\":\"").append(finding.getKind().name()).append('"');
+                finding.visitFields(jsonVisitor);
+                line.append('}');
+        }
+        writeLine();
+    }
+
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeLine() {
+        line.append('\n');
+        try {
+            out.append(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        line.setLength(0);
+    }
+
+    private static int column(String name) {
+        for (int i = 1; i < CSV_COLUMNS.length; i++) {
+            if (CSV_COLUMNS[i].equals(name)) return i;
+        }
+        throw new IllegalArgumentException("No CSV column for field " + name);
+    }
+
+    /**
+     * Appends {@code value} as a quoted, escaped JSON string.
+     */
+    static StringBuilder appendJsonString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') out.append('\\').append(c);
+            else if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+            else out.append(c);
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Appends {@code value} as a JSON number, or {@code null} for NaN and infinities, which JSON cannot express.
+     */
+    static StringBuilder appendJsonNumber(StringBuilder out, double value) {
+        return Double.isFinite(value) ? out.append(value) : out.append("null");
+    }
+
+    private static String csvQuote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private class CsvVisitor implements Finding.FieldVisitor {
+        @Override
+        public void field(String name, long value) {
+            csvRow[column(name)] = Long.toString(value);
+        }
+
+        @Override
+        public void field(String name, double value) {
+            csvRow[column(name)] = Double.toString(value);
+        }
+
+        @Override
+        public void field(String name, String value) {
+            csvRow[column(name)] = csvQuote(value);
+        }
+
+        @Override
+        public void field(String name, boolean value) {
+            csvRow[column(name)] = Boolean.toString(value);
+        }
+    }
+
+    private class JsonVisitor implements Finding.FieldVisitor {
+        @Override
+        public void field(String name, long value) {
+            name(name).append(value);
+        }
+
+        @Override
+        public void field(String name, double value) {
+            appendJsonNumber(name(name), value);
+        }
+
+        @Override
+        public void field(String name, String value) {
+            appendJsonString(name(name), value);
+        }
+
+        @Override
+        public void field(String name, boolean value) {
+            name(name).append(value);
+        }
+
+        private StringBuilder name(String name) {
+            return line.append(",\"").append(name).append("\":");
+        }
+    }
+}
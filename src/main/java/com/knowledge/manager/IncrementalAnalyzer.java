@@ -0,0 +1,319 @@
+package com.knowledge.manager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Long-lived analyzer that keeps the org, its indexes and its findings up to date under small deltas.
+ * <p>
+ * The id and manager-to-reports indexes are updated in place. After a change only the affected
+ * neighbourhood is recomputed:
+ * <ul>
+ *     <li>salary bands of the managers whose report set or own salary changed (old and new manager on a
+ *     transfer, the manager on a raise, the employee itself);</li>
+ *     <li>depths of the subtree below an employee whose manager changed, or who was hired or left;</li>
+ *     <li>the bands of the roots when the number of roots moves to or from one, since that decides who is CEO.</li>
+ * </ul>
+ * Employees are keyed by id, so an upsert replaces the previous row with that id.
+ * Not thread-safe.
+ */
+public class IncrementalAnalyzer {
+
+    /**
+     * Notified when a salary band or deep reporting line finding appears or disappears.
+     */
+    public interface Listener {
+        void findingAdded(Finding finding);
+
+        void findingRemoved(Finding finding);
+    }
+
+    private static final Listener NO_LISTENER = new Listener() {
+        @Override
+        public void findingAdded(Finding finding) {
+        }
+
+        @Override
+        public void findingRemoved(Finding finding) {
+        }
+    };
+
+    private final int depthThreshold;
+    private final Map<Integer, Employee> idToEmployee = new HashMap<>();
+    private final Map<Integer, Set<Integer>> managerToReports = new HashMap<>();
+    private final Set<Integer> roots = new HashSet<>();
+    private final Map<Integer, Integer> depths = new HashMap<>();
+    private final Map<Integer, Finding.SalaryBand> bandFindings = new HashMap<>();
+    private final Map<Integer, Finding.DeepReportingLine> deepFindings = new HashMap<>();
+    private Listener listener = NO_LISTENER;
+
+    public IncrementalAnalyzer(int depthThreshold) {
+        this.depthThreshold = depthThreshold;
+    }
+
+    /**
+     * Loads a full org in O(N): indexes, depths and every salary band are computed once.
+     */
+    public IncrementalAnalyzer(List<Employee> employees, int depthThreshold) {
+        this(depthThreshold);
+        for (Employee e : employees) {
+            Employee previous = idToEmployee.put(e.id, copy(e));
+            if (previous != null) unlink(previous);
+            link(idToEmployee.get(e.id));
+        }
+        depths.putAll(ManagerSalaryAnalyzer.buildDepthIndex(idToEmployee));
+        for (Map.Entry<Integer, Integer> entry : depths.entrySet()) {
+            refreshDeepFinding(entry.getKey(), entry.getValue());
+        }
+        for (Integer managerId : managerToReports.keySet()) refreshBand(managerId);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener == null ? NO_LISTENER : listener;
+    }
+
+    /**
+     * Adds or replaces the employee with {@code employee.id}: a hire, a raise, a transfer or a rename.
+     */
+    public void upsert(Employee employee) {
+        Employee updated = copy(employee);
+        Employee previous = idToEmployee.put(updated.id, updated);
+        int rootsBefore = roots.size();
+        Set<Integer> bandsToRefresh = new HashSet<>();
+        bandsToRefresh.add(updated.id);
+        if (previous != null) {
+            unlink(previous);
+            if (previous.managerId != null) bandsToRefresh.add(previous.managerId);
+        }
+        link(updated);
+        if (updated.managerId != null) bandsToRefresh.add(updated.managerId);
+
+        if (previous == null || !Objects.equals(previous.managerId, updated.managerId)) {
+            recomputeSubtreeDepths(updated.id);
+        }
+        // Picks up a rename; unchanged findings are not re-announced.
+        refreshDeepFinding(updated.id, depths.get(updated.id));
+        if ((rootsBefore == 1) != (roots.size() == 1)) bandsToRefresh.addAll(roots);
+        for (Integer managerId : bandsToRefresh) refreshBand(managerId);
+    }
+
+    /**
+     * Removes a leaver. Their reports keep pointing at the missing manager, as they would in a fresh CSV.
+     */
+    public void delete(int id) {
+        Employee previous = idToEmployee.remove(id);
+        if (previous == null) return;
+        int rootsBefore = roots.size();
+        unlink(previous);
+        depths.remove(id);
+        refreshDeepFinding(id, null);
+        refreshBand(id);
+        if (previous.managerId != null) refreshBand(previous.managerId);
+        Set<Integer> reports = managerToReports.get(id);
+        if (reports != null) {
+            for (Integer reportId : reports) recomputeSubtreeDepths(reportId);
+        }
+        if ((rootsBefore == 1) != (roots.size() == 1)) {
+            for (Integer rootId : new ArrayList<>(roots)) refreshBand(rootId);
+        }
+    }
+
+    /**
+     * Applies a delta file: a header line, then rows of {@code op,Id,firstName,lastName,salary,managerId}
+     * where op is {@code U} (upsert) or {@code D} (delete, only the id is needed). Fields are trimmed and blank
+     * lines are ignored. Every row is parsed before the first one is applied, so a malformed row leaves the
+     * analyzer unchanged.
+     *
+     * @return Number of applied rows.
+     * @throws IllegalArgumentException naming the line of the first malformed row.
+     */
+    public int applyDeltaCsv(Path file) throws IOException {
+        List<Runnable> changes = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) continue;
+                try {
+                    changes.add(parseDeltaRow(line.split(",", -1)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Delta line " + lineNumber + " (" + line + "): " + e.getMessage(), e);
+                }
+            }
+        }
+        for (Runnable change : changes) change.run();
+        return changes.size();
+    }
+
+    private Runnable parseDeltaRow(String[] parts) {
+        String op = parts[0].trim();
+        if (op.equalsIgnoreCase("D")) {
+            if (parts.length < 2) throw new IllegalArgumentException("expected D,Id");
+            int id = Integer.parseInt(parts[1].trim());
+            return () -> delete(id);
+        }
+        if (!op.equalsIgnoreCase("U")) throw new IllegalArgumentException("unknown op " + op + ", expected U or D");
+        if (parts.length < 6) throw new IllegalArgumentException("expected U,Id,firstName,lastName,salary,managerId");
+        int id = Integer.parseInt(parts[1].trim());
+        double salary = Double.parseDouble(parts[4].trim());
+        String manager = parts[5].trim();
+        Integer managerId = manager.isEmpty() ? null : Integer.valueOf(manager);
+        Employee e = new Employee(id, parts[2].trim(), parts[3].trim(), salary, managerId);
+        return () -> upsert(e);
+    }
+
+    public Employee getEmployee(int id) {
+        Employee e = idToEmployee.get(id);
+        return e == null ? null : copy(e);
+    }
+
+    public int size() {
+        return idToEmployee.size();
+    }
+
+    /**
+     * Managers above the employee, {@link DepthIndex#CYCLE} for a loop, or -1 if the id is unknown.
+     */
+    public int depth(int id) {
+        Integer depth = depths.get(id);
+        return depth == null ? -1 : depth;
+    }
+
+    public Finding.SalaryBand getSalaryFinding(int managerId) {
+        return bandFindings.get(managerId);
+    }
+
+    /**
+     * Current salary band findings, sorted by manager id.
+     */
+    public List<Finding.SalaryBand> getSalaryFindings() {
+        List<Finding.SalaryBand> findings = new ArrayList<>(bandFindings.values());
+        findings.sort(Comparator.comparingInt(Finding.SalaryBand::getManagerId));
+        return findings;
+    }
+
+    /**
+     * Current deep reporting line findings, sorted by employee id.
+     */
+    public List<Finding.DeepReportingLine> getDeepReportingLines() {
+        List<Finding.DeepReportingLine> findings = new ArrayList<>(deepFindings.values());
+        findings.sort(Comparator.comparingInt(Finding.DeepReportingLine::getEmployeeId));
+        return findings;
+    }
+
+    private void link(Employee e) {
+        if (e.managerId == null) roots.add(e.id);
+        else managerToReports.computeIfAbsent(e.managerId, k -> new LinkedHashSet<>()).add(e.id);
+    }
+
+    private void unlink(Employee e) {
+        if (e.managerId == null) {
+            roots.remove(e.id);
+            return;
+        }
+        Set<Integer> siblings = managerToReports.get(e.managerId);
+        if (siblings != null) {
+            siblings.remove(e.id);
+            if (siblings.isEmpty()) managerToReports.remove(e.managerId);
+        }
+    }
+
+    /**
+     * Recomputes depths below {@code id} after its manager changed. Cost is the size of the subtree plus the
+     * length of the new manager's chain, which is walked once to detect a move under one's own subtree.
+     */
+    private void recomputeSubtreeDepths(int id) {
+        Employee top = idToEmployee.get(id);
+        int base;
+        if (top.managerId == null) {
+            base = 0;
+        } else if (!idToEmployee.containsKey(top.managerId)) {
+            base = 1;
+        } else if (chainReaches(top.managerId, id)) {
+            base = DepthIndex.CYCLE;
+        } else {
+            int managerDepth = depths.get(top.managerId);
+            base = managerDepth == DepthIndex.CYCLE ? DepthIndex.CYCLE : managerDepth + 1;
+        }
+
+        Set<Integer> visited = new HashSet<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        visited.add(id);
+        queue.add(id);
+        setDepth(id, base);
+        while (!queue.isEmpty()) {
+            int current = queue.poll();
+            Set<Integer> reports = managerToReports.get(current);
+            if (reports == null) continue;
+            int childDepth = base == DepthIndex.CYCLE ? DepthIndex.CYCLE : depths.get(current) + 1;
+            for (Integer reportId : reports) {
+                if (visited.add(reportId)) {
+                    setDepth(reportId, childDepth);
+                    queue.add(reportId);
+                }
+            }
+        }
+    }
+
+    // True when walking up from startId reaches targetId; stops at a missing manager or an existing loop.
+    private boolean chainReaches(int startId, int targetId) {
+        Set<Integer> seen = new HashSet<>();
+        Integer current = startId;
+        while (current != null && seen.add(current)) {
+            if (current == targetId) return true;
+            Employee e = idToEmployee.get(current);
+            if (e == null) return false;
+            current = e.managerId;
+        }
+        return false;
+    }
+
+    private void setDepth(int id, int depth) {
+        Integer previous = depths.put(id, depth);
+        if (previous == null || previous != depth) refreshDeepFinding(id, depth);
+    }
+
+    private void refreshDeepFinding(int id, Integer depth) {
+        Employee e = idToEmployee.get(id);
+        Finding.DeepReportingLine finding = e != null && depth != null && depth > depthThreshold
+                ? new Finding.DeepReportingLine(id, e.firstName, e.lastName, depth, depthThreshold) : null;
+        replace(deepFindings, id, finding);
+    }
+
+    private void refreshBand(int managerId) {
+        Employee manager = idToEmployee.get(managerId);
+        Set<Integer> reports = managerToReports.get(managerId);
+        Finding.SalaryBand finding = null;
+        boolean isCEO = manager != null && manager.managerId == null && roots.size() == 1;
+        if (manager != null && reports != null && !isCEO) {
+            double sum = 0.0;
+            double minSalary = Double.MAX_VALUE;
+            double maxSalary = -Double.MAX_VALUE;
+            for (Integer reportId : reports) {
+                double salary = idToEmployee.get(reportId).salary;
+                sum += salary;
+                minSalary = Math.min(minSalary, salary);
+                maxSalary = Math.max(maxSalary, salary);
+            }
+            finding = (Finding.SalaryBand) SalaryBandAnalyzer.band(managerId, manager.firstName, manager.lastName,
+                    manager.salary, reports.size(), sum, minSalary, maxSalary);
+        }
+        replace(bandFindings, managerId, finding);
+    }
+
+    private <F extends Finding> void replace(Map<Integer, F> findings, int id, F finding) {
+        F previous = finding == null ? findings.remove(id) : findings.put(id, finding);
+        if (Objects.equals(previous, finding)) return;
+        if (previous != null) listener.findingRemoved(previous);
+        if (finding != null) listener.findingAdded(finding);
+    }
+
+    private static Employee copy(Employee e) {
+        return new Employee(e.id, e.firstName, e.lastName, e.salary, e.managerId);
+    }
+}
@@ -0,0 +1,112 @@
+package com.knowledge.manager;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int to int map with linear probing, used for id to row lookups without boxing.
+ * Values must be non-negative; {@link #get(int)} returns {@link #MISSING} for absent keys.
+ */
+final class IntIntHashMap {
+
+    static final int MISSING = -1;
+
+    private int[] keys;
+    // Stored as value + 1 so that 0 marks an empty slot.
+    private int[] values;
+    private int size;
+    private int mask;
+
+    IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    int get(int key) {
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int stored = values[slot];
+            if (stored == 0) return MISSING;
+            if (keys[slot] == key) return stored - 1;
+        }
+    }
+
+    boolean containsKey(int key) {
+        return get(key) != MISSING;
+    }
+
+    /**
+     * Associates {@code value} with {@code key}, returning the previous value or {@link #MISSING}.
+     */
+    int put(int key, int value) {
+        if (value < 0) throw new IllegalArgumentException("Negative value: " + value);
+        int slot = mix(key) & mask;
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                int previous = values[slot] - 1;
+                values[slot] = value + 1;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value + 1;
+        if (++size * 2 > keys.length) rehash();
+        return MISSING;
+    }
+
+    /**
+     * Removes {@code key}, returning its value or {@link #MISSING}.
+     */
+    int remove(int key) {
+        int slot = mix(key) & mask;
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                int previous = values[slot] - 1;
+                values[slot] = 0;
+                size--;
+                // Re-insert the rest of the probe run so lookups do not stop at the hole.
+                for (int next = (slot + 1) & mask; values[next] != 0; next = (next + 1) & mask) {
+                    int k = keys[next];
+                    int v = values[next];
+                    values[next] = 0;
+                    size--;
+                    put(k, v - 1);
+                }
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = keys.length - 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) put(oldKeys[i], oldValues[i] - 1);
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,62 +1,341 @@
 package com.knowledge.manager;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 
 public class ManagerSalaryAnalyzer {
 
-    public static final int MAX_CSV_SIZE = 1000;
+    public static final String DEFAULT_INPUT = "employees.csv";
 
     public static void main(String[] args) {
-        List<Employee> employees = readEmployeesFromCsv(args.length > 0 ? args[0] : "employees.csv");
-        if (employees == null || employees.isEmpty()) return;
-
-        if (!isCsvSizeValid(employees, MAX_CSV_SIZE)) {
-            System.out.println("Input CSV contains " + employees.size() + " entries. Please split the file so that each part contains no more than" + MAX_CSV_SIZE + " entries.");
+        String input = DEFAULT_INPUT;
+        CsvParseMode parseMode = CsvParseMode.STREAMING;
+        int threads = 1;
+        FindingWriter.Format format = FindingWriter.Format.TEXT;
+        Path output = null;
+        Path snapshot = null;
+        int servePort = -1;
+        Metrics metrics = Metrics.NOOP;
+        Path metricsOutput = null;
+        long memoryBudget = -1;
+        Path rulesFile = null;
+        int top = 0;
+        for (String arg : args) {
+            if (arg.equals("--parallel")) {
+                parseMode = CsvParseMode.MAPPED_PARALLEL;
+                threads = Math.max(threads, Runtime.getRuntime().availableProcessors());
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--format=")) {
+                format = FindingWriter.Format.parse(arg.substring("--format=".length()));
+            } else if (arg.startsWith("--output=")) {
+                output = Paths.get(arg.substring("--output=".length()));
+            } else if (arg.startsWith("--snapshot=")) {
+                snapshot = Paths.get(arg.substring("--snapshot=".length()));
+            } else if (arg.equals("--metrics")) {
+                metrics = Metrics.create();
+            } else if (arg.startsWith("--metrics=")) {
+                metrics = Metrics.create();
+                metricsOutput = Paths.get(arg.substring("--metrics=".length()));
+            } else if (arg.startsWith("--memory-budget=")) {
+                memoryBudget = parseSize(arg.substring("--memory-budget=".length()));
+            } else if (arg.startsWith("--rules=")) {
+                rulesFile = Paths.get(arg.substring("--rules=".length()));
+            } else if (arg.startsWith("--top=")) {
+                top = Integer.parseInt(arg.substring("--top=".length()));
+            } else if (arg.startsWith("--serve=")) {
+                servePort = Integer.parseInt(arg.substring("--serve=".length()));
+            } else {
+                input = arg;
+            }
+        }
+        Path inputPath = Paths.get(input);
+        boolean sharded = ShardedCsvReader.isSharded(input);
+        if (sharded && (servePort >= 0 || snapshot != null || memoryBudget > 0)) {
+            System.err.println("--serve, --snapshot and --memory-budget take a single CSV file, not " + input + ".");
+            return;
+        }
+        if (rulesFile != null && (servePort >= 0 || memoryBudget > 0)) {
+            System.err.println("--rules cannot be combined with --serve or --memory-budget, which apply the default rules.");
+            return;
+        }
+        if (top > 0 && (rulesFile != null || servePort >= 0 || memoryBudget > 0)) {
+            System.err.println("--top cannot be combined with --rules, --serve or --memory-budget.");
+            return;
+        }
+        RuleSet rules = null;
+        if (rulesFile != null) {
+            try {
+                rules = RuleSet.load(rulesFile);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error reading rules from " + rulesFile + ": " + e.getMessage());
+                return;
+            }
+        }
+        if (servePort >= 0) {
+            OrgQueryServer server = new OrgQueryServer(inputPath, snapshot, parseMode, 4, Metrics.create());
+            try {
+                int port = server.start(servePort);
+                System.out.println("Serving " + server.current().getTable().size() + " employees on http://localhost:" + port + "/");
+            } catch (IOException e) {
+                System.err.println("Error starting server: " + e.getMessage());
+            }
+            return;
+        }
+        if (memoryBudget > 0) {
+            analyzeExternally(inputPath, memoryBudget, format, output, metrics);
+            if (metrics.isEnabled()) writeMetrics(metrics, metricsOutput);
             return;
         }
+        EmployeeTable table;
+        DepthIndex depths = null;
+        List<Finding> warnings = new ArrayList<>();
+        if (sharded) {
+            table = readEmployeeTable(input, warnings::add, metrics);
+        } else if (snapshot != null) {
+            EmployeeSnapshot loaded = EmployeeSnapshot.loadOrBuild(inputPath, snapshot, parseMode, metrics);
+            table = loaded == null ? null : loaded.getTable();
+            if (loaded != null) depths = loaded.getDepths();
+        } else {
+            table = Files.isRegularFile(inputPath)
+                    ? readEmployeeTable(inputPath, parseMode, metrics)
+                    : readEmployeeTable(input);
+        }
+        if (table == null || table.size() == 0) return;
+        if (depths == null) {
+            long start = metrics.start();
+            depths = DepthIndex.build(table);
+            metrics.stop("depth", start);
+        }
 
-        Map<Integer, Employee> idToEmployee = buildIdToEmployee(employees);
-        Map<Integer, List<Employee>> managerToReports = buildManagerToReports(employees);
+        if (output == null) {
+            FindingWriter out = FindingWriter.toStdout(format);
+            for (Finding warning : warnings) out.accept(warning);
+            analyze(table, depths, rules, top, threads, out, metrics);
+            out.flush();
+        } else {
+            try (FindingWriter out = new FindingWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8), format)) {
+                for (Finding warning : warnings) out.accept(warning);
+                analyze(table, depths, rules, top, threads, out, metrics);
+            } catch (IOException e) {
+                System.err.println("Error writing report to " + output + ": " + e.getMessage());
+            }
+        }
+        if (metrics.isEnabled()) writeMetrics(metrics, metricsOutput);
+    }
 
-        analyzeManagerSalary(managerToReports, idToEmployee);
-        printEmployeesWithDeepHierarchy(employees, idToEmployee, 4);
+    private static void analyze(EmployeeTable table, DepthIndex depths, RuleSet rules, int top, int threads,
+                                FindingSink sink, Metrics metrics) {
+        if (rules == null) {
+            EmployeeTableAnalyzer.analyze(table, depths, threads, 4, top > 0 ? new BandTopK(top) : null, sink, metrics);
+        } else {
+            EmployeeTableAnalyzer.analyze(table, depths, rules, sink, metrics);
+        }
+    }
+
+    /**
+     * Runs the analysis with spill files and at most {@code memoryBudget} bytes of working heap, for files whose
+     * table does not fit in memory.
+     */
+    private static void analyzeExternally(Path input, long memoryBudget, FindingWriter.Format format, Path output, Metrics metrics) {
+        ExternalMemoryAnalyzer analyzer = new ExternalMemoryAnalyzer(memoryBudget, null);
+        if (output == null) {
+            FindingWriter out = FindingWriter.toStdout(format);
+            try {
+                analyzer.analyze(input, 4, out, metrics);
+            } catch (IOException e) {
+                System.err.println("Error analyzing " + input + " with spill files: " + e.getMessage());
+            }
+            out.flush();
+        } else {
+            try (FindingWriter out = new FindingWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8), format)) {
+                analyzer.analyze(input, 4, out, metrics);
+            } catch (IOException e) {
+                System.err.println("Error analyzing " + input + " with spill files: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Parses a byte count with an optional k, m or g suffix, e.g. "512m".
+     */
+    static long parseSize(String size) {
+        String value = size.trim().toLowerCase(Locale.ROOT);
+        long unit = 1;
+        char last = value.isEmpty() ? ' ' : value.charAt(value.length() - 1);
+        if (last == 'k' || last == 'm' || last == 'g') {
+            unit = last == 'k' ? 1L << 10 : last == 'm' ? 1L << 20 : 1L << 30;
+            value = value.substring(0, value.length() - 1);
+        }
+        return Long.parseLong(value) * unit;
+    }
+
+    /**
+     * Prints the metrics summary to stderr, or writes it to {@code file} when one is given.
+     */
+    private static void writeMetrics(Metrics metrics, Path file) {
+        if (file == null) {
+            System.err.println(metrics.getSummaryJson());
+            return;
+        }
+        try {
+            Files.write(file, (metrics.getSummaryJson() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Error writing metrics to " + file + ": " + e.getMessage());
+        }
     }
 
+    /**
+     * Reads employees from a CSV resource on the classpath.
+     *
+     * @param resourceName Name of the resource, e.g. "employees.csv".
+     * @return Parsed employees, or null if the resource does not exist.
+     */
     public static List<Employee> readEmployeesFromCsv(String resourceName) {
         List<Employee> employees = new ArrayList<>();
+        return readCsv(resourceName, collectInto(employees)) ? employees : null;
+    }
+
+    /**
+     * Streams employees from a CSV file on disk. The file is read in chunks, so there is no limit on its size.
+     *
+     * @param file Path of the CSV file.
+     * @return Parsed employees, or null if the file does not exist.
+     */
+    public static List<Employee> readEmployeesFromCsv(Path file) {
+        return readEmployeesFromCsv(file, CsvParseMode.STREAMING);
+    }
+
+    /**
+     * Reads employees from a CSV file on disk using the given parse mode.
+     * Both modes produce the same rows in the same order.
+     *
+     * @param file Path of the CSV file.
+     * @param mode Streaming (single thread) or memory-mapped parallel parsing.
+     * @return Parsed employees, or null if the file does not exist.
+     */
+    public static List<Employee> readEmployeesFromCsv(Path file, CsvParseMode mode) {
+        List<Employee> employees = new ArrayList<>();
+        return readCsv(file, mode, collectInto(employees), Metrics.NOOP) ? employees : null;
+    }
+
+    /**
+     * Reads a CSV resource on the classpath into a columnar {@link EmployeeTable}, without creating Employee objects.
+     *
+     * @param resourceName Name of the resource, e.g. "employees.csv".
+     * @return Employee table, or null if the resource does not exist.
+     */
+    public static EmployeeTable readEmployeeTable(String resourceName) {
+        EmployeeTable.Builder builder = new EmployeeTable.Builder();
+        return readCsv(resourceName, builder) ? builder.build() : null;
+    }
+
+    /**
+     * Reads a CSV file on disk into a columnar {@link EmployeeTable}, without creating Employee objects.
+     *
+     * @param file Path of the CSV file.
+     * @param mode Streaming (single thread) or memory-mapped parallel parsing.
+     * @return Employee table, or null if the file does not exist.
+     */
+    public static EmployeeTable readEmployeeTable(Path file, CsvParseMode mode) {
+        return readEmployeeTable(file, mode, Metrics.NOOP);
+    }
+
+    /**
+     * Like {@link #readEmployeeTable(Path, CsvParseMode)}, recording the {@code parse} and {@code index} phases
+     * and the rows read and skipped into {@code metrics}.
+     */
+    public static EmployeeTable readEmployeeTable(Path file, CsvParseMode mode, Metrics metrics) {
+        EmployeeTable.Builder builder = new EmployeeTable.Builder();
+        if (!readCsv(file, mode, builder, metrics)) return null;
+        long start = metrics.start();
+        EmployeeTable table = builder.build();
+        metrics.stop("index", start);
+        return table;
+    }
+
+    /**
+     * Reads an org exported as several CSV files into one {@link EmployeeTable}: every {@code *.csv} of a
+     * directory, or the files matching a glob such as {@code exports/*.csv}. The shards are parsed concurrently
+     * and managers are resolved across them; ids found in more than one shard go to {@code warnings} as
+     * {@link Finding.DuplicateId}, and the copy from the shard sorting last is used.
+     *
+     * @param shards Directory or glob naming the CSV files.
+     * @return Employee table, or null if no file matches.
+     */
+    public static EmployeeTable readEmployeeTable(String shards, FindingSink warnings, Metrics metrics) {
+        List<Path> files;
+        try {
+            files = ShardedCsvReader.resolve(shards);
+        } catch (IOException e) {
+            System.err.println("Error listing " + shards + ": " + e.getMessage());
+            return null;
+        }
+        if (files.isEmpty()) {
+            System.err.println("No CSV files match " + shards + ".");
+            return null;
+        }
+        EmployeeTable.Builder builder = new EmployeeTable.Builder();
+        long start = metrics.start();
+        try {
+            ShardedCsvReader reader = new ShardedCsvReader(builder);
+            reader.read(files);
+            metrics.rows(reader.getRowsRead(), reader.getRowsSkipped());
+            metrics.stop("parse", start);
+            for (Finding duplicate : reader.getDuplicates()) warnings.accept(duplicate);
+        } catch (Exception e) {
+            System.err.println("Error reading employees from CSV: " + e.getMessage());
+        }
+        start = metrics.start();
+        EmployeeTable table = builder.build();
+        metrics.stop("index", start);
+        return table;
+    }
+
+    private static boolean readCsv(String resourceName, EmployeeRowHandler handler) {
         try (InputStream is = ManagerSalaryAnalyzer.class.getClassLoader().getResourceAsStream(resourceName)) {
             if (is == null) {
                 System.err.println("Could not find " + resourceName + " in resources folder.");
-                return null;
+                return false;
             }
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-                String line;
-                boolean firstLine = true;
-                while ((line = reader.readLine()) != null) {
-                    if (firstLine) {
-                        firstLine = false;
-                        continue;
-                    }
-                    String[] parts = line.split(",", -1);
-                    if (parts.length < 5) continue;
-                    int id = Integer.parseInt(parts[0]);
-                    String firstName = parts[1];
-                    String lastName = parts[2];
-                    double salary = Double.parseDouble(parts[3]);
-                    Integer managerId = parts[4].isEmpty() ? null : Integer.parseInt(parts[4]);
-                    employees.add(new Employee(id, firstName, lastName, salary, managerId));
-                    if (employees.size() > MAX_CSV_SIZE) break;
-                }
+            new EmployeeCsvReader(handler).read(is);
+        } catch (Exception e) {
+            System.err.println("Error reading employees from CSV: " + e.getMessage());
+        }
+        return true;
+    }
+
+    private static boolean readCsv(Path file, CsvParseMode mode, EmployeeRowHandler handler, Metrics metrics) {
+        if (!Files.isRegularFile(file)) {
+            System.err.println("Could not find " + file + ".");
+            return false;
+        }
+        long start = metrics.start();
+        try {
+            if (mode == CsvParseMode.MAPPED_PARALLEL) {
+                MappedCsvReader reader = new MappedCsvReader(handler);
+                reader.read(file);
+                metrics.rows(reader.getRowsRead(), reader.getRowsSkipped());
+            } else {
+                EmployeeCsvReader reader = new EmployeeCsvReader(handler);
+                reader.read(file);
+                metrics.rows(reader.getRowsRead(), reader.getRowsSkipped());
             }
+            metrics.stop("parse", start);
         } catch (Exception e) {
             System.err.println("Error reading employees from CSV: " + e.getMessage());
         }
-        return employees;
+        return true;
+    }
+
+    private static EmployeeRowHandler collectInto(List<Employee> employees) {
+        return (id, firstName, lastName, salary, managerId) -> employees.add(new Employee(id, firstName, lastName, salary,
+                managerId == EmployeeRowHandler.NO_MANAGER ? null : managerId));
     }
 
     public static boolean isCsvSizeValid(List<Employee> employees, int maxSize) {
@@ -93,38 +372,56 @@ public class ManagerSalaryAnalyzer {
             Map<Integer, List<Employee>> managerToReports,
             Map<Integer, Employee> idToEmployee) {
 
-        List<String> results = new ArrayList<>();
+        CollectingFindingSink findings = new CollectingFindingSink();
+        analyzeManagerSalary(managerToReports, idToEmployee, findings);
+        List<String> results = findings.getTexts();
+        results.forEach(System.out::println);
+        return results;
+    }
 
+    /**
+     * Same analysis as {@link #analyzeManagerSalary(Map, Map)}, streaming typed findings into {@code sink}
+     * instead of building strings.
+     *
+     * @param managerToReports Map of manager IDs to their direct reports.
+     * @param idToEmployee     Map of employee IDs to Employee objects.
+     * @param sink             Destination of the findings.
+     */
+    public static void analyzeManagerSalary(
+            Map<Integer, List<Employee>> managerToReports,
+            Map<Integer, Employee> idToEmployee,
+            FindingSink sink) {
 
         // 1. Detect employees with multiple managers (if data allows)
-        hasMultipleManagers(managerToReports, results);
+        hasMultipleManagers(managerToReports, sink);
 
         // 2. Detect cycles (circular reporting)
-        cycleDetected(idToEmployee, results);
+        cycleDetected(idToEmployee, sink);
 
         // 3. Detect Multi CEO
-        hasMultiCEO(idToEmployee, results);
+        long ceoCount = countCEOs(idToEmployee);
+        hasMultiCEO(ceoCount, sink);
 
         // 4. Detect Single reportee to CEO
-        onlyReporteeToCEO(idToEmployee, results);
+        onlyReporteeToCEO(idToEmployee, ceoCount, sink);
 
         // 5. Salary analysis and employees with no subordinates
         for (Map.Entry<Integer, List<Employee>> entry : managerToReports.entrySet()) {
             int managerId = entry.getKey();
             List<Employee> reports = entry.getValue();
             Employee manager = idToEmployee.get(managerId);
-            if (manager == null || isCEO(manager, idToEmployee)) {
+            if (manager == null || isCEO(manager, ceoCount)) {
                 continue;
             }
 
             if (reports.isEmpty()) {
-                results.add("ManagerId: " + managerId + " (" + manager.firstName + " " + manager.lastName + ") has no subordinates.");
+                sink.accept(new Finding.NoSubordinates(managerId, manager.firstName, manager.lastName));
                 continue;
             }
 
             double managerSalary = manager.salary;
             double sum = 0.0;
-            double minSalary = Double.MAX_VALUE, maxSalary = Double.MIN_VALUE;
+            double minSalary = Double.MAX_VALUE, maxSalary = -Double.MAX_VALUE;
             for (Employee report : reports) {
                 sum += report.salary;
                 if (report.salary < minSalary) {
@@ -139,57 +436,43 @@ public class ManagerSalaryAnalyzer {
             double maxShouldEarn = avgSubordinateSalary * 1.5;
 
             if (managerSalary < minShouldEarn) {
-                double diff = minShouldEarn - managerSalary;
-                results.add("ManagerId: " + managerId +
-                        " (" + manager.firstName + " " + manager.lastName + ")" +
-                        " is UNDERPAID by " + Math.round(diff) +
-                        " (earns " + Math.round(managerSalary) +
-                        ", should earn at least " + Math.round(minShouldEarn) + ")" +
-                        ", average subordinate salary: " + Math.round(avgSubordinateSalary)
-                );
+                sink.accept(new Finding.SalaryBand(Finding.Kind.UNDERPAID, managerId, manager.firstName, manager.lastName,
+                        managerSalary, minShouldEarn, avgSubordinateSalary, reports.size(), minSalary, maxSalary));
             } else if (managerSalary > maxShouldEarn) {
-                double diff = managerSalary - maxShouldEarn;
-                results.add("ManagerId: " + managerId +
-                        " (" + manager.firstName + " " + manager.lastName + ")" +
-                        " is OVERPAID by " + Math.round(diff) +
-                        " (earns " + Math.round(managerSalary) +
-                        ", should earn no more than " + Math.round(maxShouldEarn) + ")" +
-                        ", average subordinate salary: " + Math.round(avgSubordinateSalary)
-                );
+                sink.accept(new Finding.SalaryBand(Finding.Kind.OVERPAID, managerId, manager.firstName, manager.lastName,
+                        managerSalary, maxShouldEarn, avgSubordinateSalary, reports.size(), minSalary, maxSalary));
             }
         }
-        results.forEach(System.out::println);
-        return results;
     }
 
-    private static boolean onlyReporteeToCEO(Map<Integer, Employee> idToEmployee, List<String> results) {
+    private static void onlyReporteeToCEO(Map<Integer, Employee> idToEmployee, long ceoCount, FindingSink sink) {
+        if (idToEmployee.size() != 2) return;
         for (Employee e : idToEmployee.values()) {
-            if (idToEmployee.size() == 2 && !isCEO(e, idToEmployee)) {
-                results.add("WARNING: EmployeeId: " + e.id + " (" + e.firstName + " " + e.lastName + ") has no subordinates and is not CEO.");
+            if (!isCEO(e, ceoCount)) {
+                sink.accept(new Finding.NotCeo(e.id, e.firstName, e.lastName));
             }
         }
-        return !results.isEmpty();
     }
 
-    private static boolean hasMultiCEO(Map<Integer, Employee> idToEmployee, List<String> results) {
-        long ceoCount = idToEmployee.values().stream().filter(e -> e.managerId == null).count();
+    private static void hasMultiCEO(long ceoCount, FindingSink sink) {
         if (ceoCount > 1) {
-            results.add("WARNING: More than one CEO detected in the company.");
+            sink.accept(new Finding.MultipleCeo(ceoCount));
         }
-        return !results.isEmpty();
     }
 
 
-    private static boolean cycleDetected(Map<Integer, Employee> idToEmployee, List<String> results) {
+    // Flags every employee whose chain of managers runs into a loop. The depth index marks those in one
+    // memoized pass (on-path = grey, known depth = black), instead of walking every chain with a fresh set.
+    private static void cycleDetected(Map<Integer, Employee> idToEmployee, FindingSink sink) {
+        Map<Integer, Integer> depths = buildDepthIndex(idToEmployee);
         for (Employee e : idToEmployee.values()) {
-            if (hasCycle(e, idToEmployee, new HashSet<>())) {
-                results.add("WARNING: EmployeeId: " + e.id + " (" + e.firstName + " " + e.lastName + ") is in a circular reporting structure.");
+            if (depths.get(e.id) == DepthIndex.CYCLE) {
+                sink.accept(new Finding.CircularReporting(e.id, e.firstName, e.lastName));
             }
         }
-        return !results.isEmpty();
     }
 
-    private static boolean hasMultipleManagers(Map<Integer, List<Employee>> managerToReports, List<String> results) {
+    private static void hasMultipleManagers(Map<Integer, List<Employee>> managerToReports, FindingSink sink) {
         Set<Integer> subordinateIds = new HashSet<>();
         Set<Integer> employeesWithMultipleManagers = new HashSet<>();
         for (List<Employee> reports : managerToReports.values()) {
@@ -200,26 +483,21 @@ public class ManagerSalaryAnalyzer {
             }
         }
         for (Integer multiId : employeesWithMultipleManagers) {
-            results.add("WARNING: EmployeeId: " + multiId + " has multiple managers (not supported).");
+            sink.accept(new Finding.MultipleManagers(multiId));
         }
-        return !results.isEmpty();
     }
 
-    // Helper to detect cycles using DFS
-    private static boolean hasCycle(Employee e, Map<Integer, Employee> idToEmployee, Set<Integer> path) {
-        Integer managerId = e.managerId;
-        while (managerId != null) {
-            if (!path.add(managerId)) return true; // cycle detected
-            Employee mgr = idToEmployee.get(managerId);
-            if (mgr == null) break;
-            managerId = mgr.managerId;
+    private static long countCEOs(Map<Integer, Employee> idToEmployee) {
+        long count = 0;
+        for (Employee e : idToEmployee.values()) {
+            if (e.managerId == null) count++;
         }
-        return false;
+        return count;
     }
 
     // Helper to identify CEO (no manager, and only one CEO in company)
-    private static boolean isCEO(Employee e, Map<Integer, Employee> idToEmployee) {
-        return e.managerId == null && idToEmployee.values().stream().filter(emp -> emp.managerId == null).count() == 1;
+    private static boolean isCEO(Employee e, long ceoCount) {
+        return e.managerId == null && ceoCount == 1;
     }
 
 
@@ -244,16 +522,77 @@ public class ManagerSalaryAnalyzer {
     }
 
     public static void printEmployeesWithDeepHierarchy(List<Employee> employees, Map<Integer, Employee> idToEmployee, int threshold) {
+        Map<Integer, Integer> depths = buildDepthIndex(idToEmployee);
         for (Employee emp : employees) {
-            int count = countManagersToCEO(emp, idToEmployee);
+            int count = lookupManagersToCEO(emp, depths);
             if (count > threshold) {
-                System.out.println("EmployeeId: " + emp.id +
-                        " (" + emp.firstName + " " + emp.lastName + ")" +
-                        " has " + count + " managers between them and the CEO.");
+                System.out.println(new Finding.DeepReportingLine(emp.id, emp.firstName, emp.lastName, count, threshold).toText());
             }
         }
     }
 
+    /**
+     * Computes {@link #countManagersToCEO} for every employee at once. Each reporting line is walked only up to
+     * the first manager whose count is already known, so the whole index costs O(N) instead of O(N * depth).
+     * Employees whose chain of managers loops get {@link DepthIndex#CYCLE}.
+     *
+     * @param idToEmployee Map of employee IDs to Employee objects.
+     * @return Map of employee IDs to the number of managers between them and the CEO.
+     */
+    public static Map<Integer, Integer> buildDepthIndex(Map<Integer, Employee> idToEmployee) {
+        Map<Integer, Integer> depths = new HashMap<>(idToEmployee.size() * 2);
+        Deque<Employee> path = new ArrayDeque<>();
+        Set<Integer> onPath = new HashSet<>();
+        for (Employee start : idToEmployee.values()) {
+            // Walk up until a known depth, a root, a missing manager or a loop; topDepth is the depth of path.peek().
+            int topDepth;
+            Employee e = start;
+            while (true) {
+                Integer known = depths.get(e.id);
+                if (known != null) {
+                    topDepth = known == DepthIndex.CYCLE || path.isEmpty() ? known : known + 1;
+                    break;
+                }
+                if (!onPath.add(e.id)) {
+                    topDepth = DepthIndex.CYCLE;
+                    break;
+                }
+                path.push(e);
+                if (e.managerId == null) {
+                    topDepth = 0;
+                    break;
+                }
+                Employee manager = idToEmployee.get(e.managerId);
+                if (manager == null) {
+                    // A missing manager still counts as one hop.
+                    topDepth = 1;
+                    break;
+                }
+                e = manager;
+            }
+            int depth = topDepth;
+            while (!path.isEmpty()) {
+                Employee done = path.pop();
+                onPath.remove(done.id);
+                depths.put(done.id, depth);
+                if (depth != DepthIndex.CYCLE) depth++;
+            }
+        }
+        return depths;
+    }
+
+    /**
+     * Number of managers above {@code emp}, answered from a {@link #buildDepthIndex} result without walking the chain.
+     *
+     * @return Manager count, or {@link DepthIndex#CYCLE} if the chain loops.
+     */
+    public static int lookupManagersToCEO(Employee emp, Map<Integer, Integer> depthIndex) {
+        if (emp.managerId == null) return 0;
+        Integer managerDepth = depthIndex.get(emp.managerId);
+        if (managerDepth == null) return 1;
+        return managerDepth == DepthIndex.CYCLE ? DepthIndex.CYCLE : managerDepth + 1;
+    }
+
     public static int countManagersToCEO(Employee emp, Map<Integer, Employee> idToEmployee) {
         int count = 0;
         Integer managerId = emp.managerId;
@@ -265,4 +604,43 @@ public class ManagerSalaryAnalyzer {
         }
         return count;
     }
+
+    /**
+     * {@link #countManagersToCEO(Employee, Map)} for an employee id, answered from an {@link AncestorIndex}
+     * without walking the chain. Returns {@link DepthIndex#CYCLE} if the chain loops.
+     */
+    public static int countManagersToCEO(int employeeId, AncestorIndex index) {
+        return index.managersToCEO(rowOf(employeeId, index));
+    }
+
+    /**
+     * Id of the lowest manager both employees report to (one of them, if the other is in their line), or null
+     * when their reporting lines never meet.
+     */
+    public static Integer lowestCommonManager(int employeeId, int otherEmployeeId, AncestorIndex index) {
+        int row = index.lowestCommonManager(rowOf(employeeId, index), rowOf(otherEmployeeId, index));
+        return row == AncestorIndex.NONE ? null : index.getTable().ids[row];
+    }
+
+    /**
+     * True when {@code managerId} is above {@code employeeId} in the reporting line, directly or indirectly.
+     */
+    public static boolean isInChainOfCommand(int managerId, int employeeId, AncestorIndex index) {
+        return index.isManagerOf(rowOf(managerId, index), rowOf(employeeId, index));
+    }
+
+    /**
+     * Id of the {@code k}-th manager above the employee (1 is the direct manager), or null when the reporting
+     * line is shorter or loops.
+     */
+    public static Integer managerAbove(int employeeId, int k, AncestorIndex index) {
+        int row = index.managerAbove(rowOf(employeeId, index), k);
+        return row == AncestorIndex.NONE ? null : index.getTable().ids[row];
+    }
+
+    private static int rowOf(int employeeId, AncestorIndex index) {
+        int row = index.getTable().rowOf(employeeId);
+        if (row < 0) throw new IllegalArgumentException("No employee with id " + employeeId);
+        return row;
+    }
 }
@@ -0,0 +1,169 @@
+package com.knowledge.manager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel employee CSV reader over a memory-mapped file.
+ * The file is cut into newline-aligned byte ranges, each range is mapped with {@link FileChannel#map}
+ * and parsed on its own fork-join worker straight from the UTF-8 bytes into a per-range row buffer, with the
+ * same {@link CsvLineParser} rules as {@link EmployeeCsvReader}; only the name fields are decoded.
+ * Buffers are then replayed into the {@link EmployeeRowHandler} in file order, so the handler sees
+ * exactly the same rows, in the same order, as with {@link EmployeeCsvReader}.
+ */
+public class MappedCsvReader {
+
+    // Ranges are capped well below the 2 GB limit of a single mapping.
+    static final long MAX_RANGE_BYTES = 64L << 20;
+    static final long MIN_RANGE_BYTES = 1L << 20;
+
+    private final EmployeeRowHandler handler;
+    private final int parallelism;
+    private long rowsRead;
+    private long rowsSkipped;
+
+    public MappedCsvReader(EmployeeRowHandler handler) {
+        this(handler, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MappedCsvReader(EmployeeRowHandler handler, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        this.handler = handler;
+        this.parallelism = parallelism;
+    }
+
+    public void read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = splitRanges(channel, rangeSize(channel.size()));
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<RangeTask> tasks = new ArrayList<>(bounds.length - 1);
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    RangeTask task = new RangeTask(channel, bounds[i], bounds[i + 1], i == 0);
+                    tasks.add(task);
+                    pool.execute(task);
+                }
+                for (RangeTask task : tasks) {
+                    task.join().replay(handler);
+                    rowsRead += task.rowsRead;
+                    rowsSkipped += task.rowsSkipped;
+                }
+            } catch (RuntimeException e) {
+                // join() may rethrow a copy of the worker's exception that wraps the original.
+                for (Throwable t = e; t != null; t = t.getCause()) {
+                    if (t instanceof UncheckedIOException) throw ((UncheckedIOException) t).getCause();
+                }
+                throw e;
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    private long rangeSize(long fileSize) {
+        long size = fileSize / (parallelism * 4L) + 1;
+        return Math.min(MAX_RANGE_BYTES, Math.max(MIN_RANGE_BYTES, size));
+    }
+
+    /**
+     * Returns range boundaries; every boundary except the last is the first byte after a newline.
+     */
+    static long[] splitRanges(FileChannel channel, long rangeSize) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[16];
+        int count = 0;
+        bounds[count++] = 0;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long pos = 0;
+        while (pos < size) {
+            long next = pos + rangeSize;
+            if (next >= size) {
+                next = size;
+            } else {
+                next = nextLineStart(channel, next, probe);
+            }
+            if (count == bounds.length) bounds = Arrays.copyOf(bounds, count * 2);
+            bounds[count++] = next;
+            pos = next;
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, ByteBuffer probe) throws IOException {
+        long pos = from;
+        while (true) {
+            probe.clear();
+            int n = channel.read(probe, pos);
+            if (n <= 0) return channel.size();
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') return pos + i + 1;
+            }
+            pos += n;
+        }
+    }
+
+    /**
+     * Parses one byte range into a columnar row buffer.
+     */
+    private static final class RangeTask extends RecursiveTask<RowBuffer> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final boolean firstRange;
+        private long rowsRead;
+        private long rowsSkipped;
+
+        RangeTask(FileChannel channel, long start, long end, boolean firstRange) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.firstRange = firstRange;
+        }
+
+        @Override
+        protected RowBuffer compute() {
+            RowBuffer rows = new RowBuffer();
+            if (end <= start) return rows;
+            MappedByteBuffer buf;
+            try {
+                buf = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            CsvLineParser.Bytes lines = new CsvLineParser.Bytes(rows, buf);
+            int limit = buf.limit();
+            int lineStart = 0;
+            boolean header = firstRange;
+            while (lineStart < limit) {
+                int nl = lineStart;
+                while (nl < limit && buf.get(nl) != '\n') nl++;
+                if (header) header = false;
+                else lines.parseLine(lineStart, nl);
+                lineStart = nl + 1;
+            }
+            rowsRead = lines.getRowsRead();
+            rowsSkipped = lines.getRowsSkipped();
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.knowledge.manager;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-run counters: wall time per phase, rows parsed and skipped, findings per kind, peak index sizes and
+ * free-form counters (e.g. queries per endpoint in server mode).
+ * <p>
+ * {@link #NOOP} is the disabled instance: every method returns on a constant check and
+ * {@link #counting(FindingSink)} hands back the sink unchanged, so instrumented code paths cost next to
+ * nothing when metrics are off. An enabled instance is thread-safe; phase times and counters are lock-free
+ * adders, so recording them from concurrent queries does not contend. Reports list them in first-recorded order.
+ */
+public final class Metrics implements MetricsMXBean {
+
+    public static final Metrics NOOP = new Metrics(false);
+
+    static final String OBJECT_NAME = "com.knowledge.manager:type=Metrics";
+
+    private final boolean enabled;
+    private final ConcurrentHashMap<String, LongAdder> phaseNanos = new ConcurrentHashMap<>();
+    private final Queue<String> phaseOrder = new ConcurrentLinkedQueue<>();
+    private final Map<String, Long> indexSizes = new LinkedHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Queue<String> counterOrder = new ConcurrentLinkedQueue<>();
+    private final LongAdder rowsParsed = new LongAdder();
+    private final LongAdder rowsSkipped = new LongAdder();
+    private final AtomicLongArray findings = new AtomicLongArray(Finding.Kind.values().length);
+
+    private Metrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static Metrics create() {
+        return new Metrics(true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start of a phase; pass the result to {@link #stop(String, long)}.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Adds the time since {@code start} to the phase; a phase run several times accumulates.
+     */
+    public void stop(String phase, long start) {
+        if (!enabled) return;
+        adder(phaseNanos, phaseOrder, phase).add(System.nanoTime() - start);
+    }
+
+    public void rows(long parsed, long skipped) {
+        if (!enabled) return;
+        rowsParsed.add(parsed);
+        rowsSkipped.add(skipped);
+    }
+
+    /**
+     * Records an index size, keeping the largest value seen.
+     */
+    public void indexSize(String index, long size) {
+        if (!enabled) return;
+        synchronized (indexSizes) {
+            indexSizes.merge(index, size, Math::max);
+        }
+    }
+
+    public void increment(String counter) {
+        increment(counter, 1);
+    }
+
+    public void increment(String counter, long delta) {
+        if (!enabled) return;
+        adder(counters, counterOrder, counter).add(delta);
+    }
+
+    // The adder for the key, created and appended to the key order on first use.
+    private static LongAdder adder(ConcurrentHashMap<String, LongAdder> adders, Queue<String> order, String key) {
+        LongAdder adder = adders.get(key);
+        if (adder != null) return adder;
+        LongAdder created = new LongAdder();
+        adder = adders.putIfAbsent(key, created);
+        if (adder != null) return adder;
+        order.add(key);
+        return created;
+    }
+
+    /**
+     * Sink that counts findings per kind before passing them on; the sink itself when disabled.
+     */
+    public FindingSink counting(FindingSink sink) {
+        if (!enabled) return sink;
+        return finding -> {
+            findings.incrementAndGet(finding.getKind().ordinal());
+            sink.accept(finding);
+        };
+    }
+
+    /**
+     * Records the sizes of the table's indexes.
+     */
+    public void indexSizes(EmployeeTable table) {
+        if (!enabled) return;
+        indexSize("rows", table.size);
+        indexSize("reportEdges", table.childIdx.length);
+        indexSize("idIndexCapacity", table.idToRow.capacity());
+        indexSize("distinctNames", table.names.size());
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        for (String phase : phaseOrder) millis.put(phase, phaseNanos.get(phase).sum() / 1e6);
+        return millis;
+    }
+
+    @Override
+    public long getRowsParsed() {
+        return rowsParsed.sum();
+    }
+
+    @Override
+    public long getRowsSkipped() {
+        return rowsSkipped.sum();
+    }
+
+    /**
+     * Rows parsed per second of the {@code parse} phase.
+     */
+    @Override
+    public double getRowsPerSecond() {
+        LongAdder adder = phaseNanos.get("parse");
+        long nanos = adder == null ? 0 : adder.sum();
+        return nanos == 0 ? 0 : getRowsParsed() * 1e9 / nanos;
+    }
+
+    @Override
+    public Map<String, Long> getFindingCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Finding.Kind kind : Finding.Kind.values()) {
+            long count = findings.get(kind.ordinal());
+            if (count > 0) counts.put(kind.name(), count);
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getIndexSizes() {
+        synchronized (indexSizes) {
+            return new LinkedHashMap<>(indexSizes);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (String name : counterOrder) values.put(name, counters.get(name).sum());
+        return values;
+    }
+
+    /**
+     * Single-line JSON summary of everything recorded.
+     */
+    @Override
+    public String getSummaryJson() {
+        StringBuilder json = new StringBuilder("{\"phaseMillis\":");
+        appendMap(json, getPhaseMillis());
+        json.append(",\"rowsParsed\":").append(getRowsParsed())
+                .append(",\"rowsSkipped\":").append(getRowsSkipped())
+                .append(",\"rowsPerSecond\":").append(Math.round(getRowsPerSecond()))
+                .append(",\"findings\":");
+        appendMap(json, getFindingCounts());
+        json.append(",\"indexSizes\":");
+        appendMap(json, getIndexSizes());
+        json.append(",\"counters\":");
+        appendMap(json, getCounters());
+        return json.append('}').toString();
+    }
+
+    /**
+     * Registers this instance with the platform MBean server, replacing an earlier registration.
+     */
+    public void registerMBean() {
+        if (!enabled) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            try {
+                server.registerMBean(this, name);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Error registering metrics MBean: " + e.getMessage());
+        }
+    }
+
+    private static void appendMap(StringBuilder json, Map<String, ? extends Number> values) {
+        json.append('{');
+        boolean first = true;
+        for (Map.Entry<String, ? extends Number> entry : values.entrySet()) {
+            if (!first) json.append(',');
+            FindingWriter.appendJsonString(json, entry.getKey()).append(':').append(entry.getValue());
+            first = false;
+        }
+        json.append('}');
+    }
+}
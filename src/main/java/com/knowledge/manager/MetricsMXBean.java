@@ -0,0 +1,25 @@
+package com.knowledge.manager;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link Metrics}, registered by the query server.
+ */
+public interface MetricsMXBean {
+
+    Map<String, Double> getPhaseMillis();
+
+    long getRowsParsed();
+
+    long getRowsSkipped();
+
+    double getRowsPerSecond();
+
+    Map<String, Long> getFindingCounts();
+
+    Map<String, Long> getIndexSizes();
+
+    Map<String, Long> getCounters();
+
+    String getSummaryJson();
+}
@@ -0,0 +1,48 @@
+package com.knowledge.manager;
+
+import java.util.Arrays;
+
+/**
+ * Dictionary encoding for name columns: every distinct string is stored once and referenced by an int code.
+ * HR exports repeat first and last names heavily, so this keeps millions of rows down to a few thousand Strings.
+ */
+public final class NamePool {
+
+    private String[] names = new String[256];
+    private int size;
+    // Open-addressing table of code + 1, 0 marks an empty slot.
+    private int[] slots = new int[512];
+
+    public int intern(String name) {
+        int mask = slots.length - 1;
+        for (int slot = name.hashCode() * 0x9E3779B9 >>> 1 & mask; ; slot = (slot + 1) & mask) {
+            int stored = slots[slot];
+            if (stored == 0) {
+                if (size == names.length) names = Arrays.copyOf(names, size * 2);
+                names[size] = name;
+                slots[slot] = ++size;
+                if (size * 2 > slots.length) rehash();
+                return size - 1;
+            }
+            if (names[stored - 1].equals(name)) return stored - 1;
+        }
+    }
+
+    public String get(int code) {
+        return names[code];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = names[code].hashCode() * 0x9E3779B9 >>> 1 & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = code + 1;
+        }
+    }
+}
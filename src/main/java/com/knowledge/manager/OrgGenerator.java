@@ -0,0 +1,380 @@
+package com.knowledge.manager;
+
+import lombok.Data;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded synthetic org generator, the in-JVM replacement of {@code generate_mock_employees.py}.
+ * <p>
+ * Rows are produced breadth first and streamed to an {@link EmployeeRowHandler} (or a CSV file) in id order;
+ * only the queue of managers that still get reports is kept, as primitive columns. Each manager gets a random
+ * number of reports in {@code [minFanOut, maxFanOut]}, reports below {@code maxDepth} managers are leaves.
+ * Report salaries are derived from the manager's salary so that every manager is inside the 1.2x - 1.5x band,
+ * except the injected anomalies:
+ * <ul>
+ *     <li>underpaid / overpaid managers: the rate is per manager;</li>
+ *     <li>orphans: the manager id does not exist;</li>
+ *     <li>extra roots: no manager, so there is more than one CEO;</li>
+ *     <li>cycles: small groups of 2 to 4 employees reporting to each other in a loop. They all earn the same,
+ *     so each of them is also reported as UNDERPAID.</li>
+ * </ul>
+ * Orphan, root and cycle rates are per row. The same seed and settings always produce the same file.
+ */
+public class OrgGenerator {
+
+    private static final String[] FIRST_NAMES = {
+            "Alice", "Bob", "Carol", "David", "Eve", "Frank", "Grace", "Hank", "Ivy", "Jack",
+            "Kate", "Liam", "Mia", "Nina", "Oscar", "Paul", "Quinn", "Ruth", "Sam", "Tina"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Jones", "White", "Brown", "Green", "Black", "Wilson", "Moore", "Taylor", "Anderson",
+            "Thomas", "Jackson", "Lee", "Walker", "Hall", "Allen", "Wright", "King", "Scott", "Young"
+    };
+
+    // Manager salary over the average report salary, per kind of manager.
+    private static final double NORMAL_RATIO = 1.35;
+    private static final double UNDERPAID_RATIO = 1.05;
+    private static final double OVERPAID_RATIO = 1.9;
+
+    private static final byte UNDECIDED = 0;
+    private static final byte NORMAL = 1;
+    private static final byte UNDERPAID = 2;
+    private static final byte OVERPAID = 3;
+
+    /**
+     * What was generated; the anomaly counts are exactly what the analysis should report.
+     */
+    @Data
+    public static class Stats {
+        long rows;
+        long managers;
+        long underpaidManagers;
+        long overpaidManagers;
+        long orphans;
+        long extraRoots;
+        long cycleRows;
+        int maxDepth;
+    }
+
+    private final int rows;
+    private final long seed;
+    private int minFanOut = 2;
+    private int maxFanOut = 8;
+    private int maxDepth = 12;
+    private double topSalary = 500000;
+    private double salaryJitter = 0.05;
+    private double underpaidRate;
+    private double overpaidRate;
+    private double orphanRate;
+    private double extraRootRate;
+    private double cycleRate;
+
+    // Queue of managers that can still get reports.
+    private int[] queueIds;
+    private int[] queueDepths;
+    private double[] queueSalaries;
+    private byte[] queueKinds;
+    private int head;
+    private int count;
+
+    public OrgGenerator(int rows, long seed) {
+        if (rows < 1 || rows > Integer.MAX_VALUE / 2) throw new IllegalArgumentException("rows out of range: " + rows);
+        this.rows = rows;
+        this.seed = seed;
+    }
+
+    public OrgGenerator fanOut(int min, int max) {
+        if (min < 1 || max < min) throw new IllegalArgumentException("Invalid fan-out: " + min + "-" + max);
+        this.minFanOut = min;
+        this.maxFanOut = max;
+        return this;
+    }
+
+    /**
+     * Deepest level that still gets reports; the CEO is level 0.
+     */
+    public OrgGenerator maxDepth(int maxDepth) {
+        if (maxDepth < 1) throw new IllegalArgumentException("maxDepth must be positive: " + maxDepth);
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * CEO salary, and the relative spread of report salaries around their band centre (below 0.1 so the
+     * spread alone never pushes a manager out of the band).
+     */
+    public OrgGenerator salaries(double topSalary, double jitter) {
+        if (topSalary <= 0 || jitter < 0 || jitter >= 0.1) {
+            throw new IllegalArgumentException("Invalid salaries: " + topSalary + ", jitter " + jitter);
+        }
+        this.topSalary = topSalary;
+        this.salaryJitter = jitter;
+        return this;
+    }
+
+    public OrgGenerator underpaidRate(double rate) {
+        this.underpaidRate = rate;
+        return this;
+    }
+
+    public OrgGenerator overpaidRate(double rate) {
+        this.overpaidRate = rate;
+        return this;
+    }
+
+    public OrgGenerator orphanRate(double rate) {
+        this.orphanRate = rate;
+        return this;
+    }
+
+    public OrgGenerator extraRootRate(double rate) {
+        this.extraRootRate = rate;
+        return this;
+    }
+
+    public OrgGenerator cycleRate(double rate) {
+        this.cycleRate = rate;
+        return this;
+    }
+
+    /**
+     * Streams the org into {@code handler}, employee 1 (the CEO) first.
+     */
+    public Stats generate(EmployeeRowHandler handler) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Stats stats = new Stats();
+        int initialCapacity = 1024;
+        queueIds = new int[initialCapacity];
+        queueDepths = new int[initialCapacity];
+        queueSalaries = new double[initialCapacity];
+        queueKinds = new byte[initialCapacity];
+        head = 0;
+        count = 0;
+        // Stop queueing new managers once the queue can absorb the remaining rows.
+        double averageFanOut = (minFanOut + maxFanOut) / 2.0;
+
+        int nextId = 1;
+        double ceoSalary = round(topSalary);
+        emit(handler, random, nextId, ceoSalary, EmployeeRowHandler.NO_MANAGER, stats);
+        enqueue(nextId++, 0, ceoSalary, UNDECIDED);
+
+        int parentId = 0;
+        int parentDepth = 0;
+        double parentSalary = 0;
+        byte parentKind = NORMAL;
+        int slots = 0;
+        while (nextId <= rows) {
+            double roll = random.nextDouble();
+            if (roll < cycleRate && rows - nextId >= 1) {
+                int size = Math.min(2 + random.nextInt(3), rows - nextId + 1);
+                double salary = salaryAround(random, topSalary / (NORMAL_RATIO * NORMAL_RATIO));
+                for (int i = 0; i < size; i++) {
+                    emit(handler, random, nextId + i, salary, nextId + (i + 1) % size, stats);
+                }
+                nextId += size;
+                stats.cycleRows += size;
+                continue;
+            }
+            roll -= cycleRate;
+            if (roll >= 0 && roll < orphanRate + extraRootRate) {
+                boolean orphan = roll < orphanRate;
+                double salary = salaryAround(random, topSalary / (NORMAL_RATIO * (orphan ? NORMAL_RATIO : 1)));
+                emit(handler, random, nextId, salary, orphan ? rows + nextId : EmployeeRowHandler.NO_MANAGER, stats);
+                if (orphan) stats.orphans++;
+                else stats.extraRoots++;
+                enqueue(nextId++, orphan ? 1 : 0, salary, UNDECIDED);
+                continue;
+            }
+
+            if (slots == 0) {
+                // The current manager is done; the last level keeps getting reports round robin once nothing
+                // deeper is left, as does the only manager left in the queue.
+                if (parentId != 0 && (parentDepth == maxDepth - 1 || count == 0)) {
+                    enqueue(parentId, parentDepth, parentSalary, parentKind);
+                }
+                int slot = head;
+                parentId = queueIds[slot];
+                parentDepth = queueDepths[slot];
+                parentSalary = queueSalaries[slot];
+                parentKind = queueKinds[slot];
+                head = (head + 1) % queueIds.length;
+                count--;
+                if (parentKind == UNDECIDED) {
+                    // Decided on the first pop, which is always followed by a report. The CEO stays in band.
+                    double kindRoll = random.nextDouble();
+                    parentKind = parentId == 1 ? NORMAL
+                            : kindRoll < underpaidRate ? UNDERPAID : kindRoll < underpaidRate + overpaidRate ? OVERPAID : NORMAL;
+                    stats.managers++;
+                    if (parentKind == UNDERPAID) stats.underpaidManagers++;
+                    else if (parentKind == OVERPAID) stats.overpaidManagers++;
+                }
+                slots = minFanOut + random.nextInt(maxFanOut - minFanOut + 1);
+            }
+
+            double ratio = parentKind == UNDERPAID ? UNDERPAID_RATIO : parentKind == OVERPAID ? OVERPAID_RATIO : NORMAL_RATIO;
+            double salary = salaryAround(random, parentSalary / ratio);
+            int depth = parentDepth + 1;
+            emit(handler, random, nextId, salary, parentId, stats);
+            stats.maxDepth = Math.max(stats.maxDepth, depth);
+            if (depth < maxDepth && count * averageFanOut < rows - nextId) {
+                enqueue(nextId, depth, salary, UNDECIDED);
+            }
+            nextId++;
+            slots--;
+        }
+        queueIds = null;
+        queueDepths = null;
+        queueSalaries = null;
+        queueKinds = null;
+        return stats;
+    }
+
+    /**
+     * Streams the org into a CSV file with the usual header.
+     */
+    public Stats writeCsv(Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return writeCsv(out);
+        }
+    }
+
+    public Stats writeCsv(Writer out) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        out.write("Id,firstName,lastName,salary,managerId\n");
+        try {
+            return generate((id, firstName, lastName, salary, managerId) -> {
+                line.setLength(0);
+                line.append(id).append(',').append(firstName).append(',').append(lastName).append(',');
+                long cents = Math.round(salary * 100);
+                line.append(cents / 100).append('.');
+                long fraction = cents % 100;
+                if (fraction < 10) line.append('0');
+                line.append(fraction).append(',');
+                if (managerId != EmployeeRowHandler.NO_MANAGER) line.append(managerId);
+                line.append('\n');
+                try {
+                    out.append(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Generates straight into a columnar table.
+     */
+    public EmployeeTable toTable() {
+        EmployeeTable.Builder builder = new EmployeeTable.Builder(rows);
+        generate(builder);
+        return builder.build();
+    }
+
+    private void emit(EmployeeRowHandler handler, SplittableRandom random, int id, double salary, int managerId, Stats stats) {
+        handler.onRow(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                salary, managerId);
+        stats.rows++;
+    }
+
+    private double salaryAround(SplittableRandom random, double centre) {
+        return round(centre * (1 + salaryJitter * (2 * random.nextDouble() - 1)));
+    }
+
+    // Salaries are kept to cents so the CSV and in-memory outputs hold the same values.
+    private static double round(double salary) {
+        return Math.round(salary * 100) / 100.0;
+    }
+
+    private void enqueue(int id, int depth, double salary, byte kind) {
+        if (count == queueIds.length) {
+            int capacity = queueIds.length * 2;
+            queueIds = unwrap(queueIds, capacity);
+            queueDepths = unwrap(queueDepths, capacity);
+            queueSalaries = unwrap(queueSalaries, capacity);
+            queueKinds = unwrap(queueKinds, capacity);
+            head = 0;
+        }
+        int slot = (head + count) % queueIds.length;
+        queueIds[slot] = id;
+        queueDepths[slot] = depth;
+        queueSalaries[slot] = salary;
+        queueKinds[slot] = kind;
+        count++;
+    }
+
+    private int[] unwrap(int[] ring, int capacity) {
+        int[] grown = new int[capacity];
+        int first = ring.length - head;
+        System.arraycopy(ring, head, grown, 0, first);
+        System.arraycopy(ring, 0, grown, first, head);
+        return grown;
+    }
+
+    private double[] unwrap(double[] ring, int capacity) {
+        double[] grown = new double[capacity];
+        int first = ring.length - head;
+        System.arraycopy(ring, head, grown, 0, first);
+        System.arraycopy(ring, 0, grown, first, head);
+        return grown;
+    }
+
+    private byte[] unwrap(byte[] ring, int capacity) {
+        byte[] grown = new byte[capacity];
+        int first = ring.length - head;
+        System.arraycopy(ring, head, grown, 0, first);
+        System.arraycopy(ring, 0, grown, first, head);
+        return grown;
+    }
+
+    /**
+     * {@code OrgGenerator <rows> <output.csv> [--seed=N] [--fan-out=MIN-MAX] [--max-depth=N] [--underpaid=RATE]
+     * [--overpaid=RATE] [--orphans=RATE] [--roots=RATE] [--cycles=RATE]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: OrgGenerator <rows> <output.csv> [--seed=N] [--fan-out=MIN-MAX] [--max-depth=N]"
+                    + " [--underpaid=RATE] [--overpaid=RATE] [--orphans=RATE] [--roots=RATE] [--cycles=RATE]");
+            return;
+        }
+        long seed = 42;
+        String[] options = Arrays.copyOfRange(args, 2, args.length);
+        for (String arg : options) {
+            if (arg.startsWith("--seed=")) seed = Long.parseLong(arg.substring("--seed=".length()));
+        }
+        OrgGenerator generator = new OrgGenerator(Integer.parseInt(args[0]), seed);
+        for (String arg : options) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--fan-out=")) {
+                String[] range = value.split("-");
+                generator.fanOut(Integer.parseInt(range[0]), Integer.parseInt(range[range.length - 1]));
+            } else if (arg.startsWith("--max-depth=")) {
+                generator.maxDepth(Integer.parseInt(value));
+            } else if (arg.startsWith("--underpaid=")) {
+                generator.underpaidRate(Double.parseDouble(value));
+            } else if (arg.startsWith("--overpaid=")) {
+                generator.overpaidRate(Double.parseDouble(value));
+            } else if (arg.startsWith("--orphans=")) {
+                generator.orphanRate(Double.parseDouble(value));
+            } else if (arg.startsWith("--roots=")) {
+                generator.extraRootRate(Double.parseDouble(value));
+            } else if (arg.startsWith("--cycles=")) {
+                generator.cycleRate(Double.parseDouble(value));
+            }
+        }
+        Path output = Paths.get(args[1]);
+        Stats stats = generator.writeCsv(output);
+        System.out.println("Mock data with " + stats.rows + " rows written to " + output + ": " + stats);
+    }
+}
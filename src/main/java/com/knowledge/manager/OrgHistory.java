@@ -0,0 +1,294 @@
+package com.knowledge.manager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Successive versions of the org, e.g. one CSV per day, with row-level and finding-level diffs between any two.
+ * <p>
+ * Every version holds its employees, salary band findings and deep reporting line findings in
+ * {@link PersistentIntMap}s keyed by id. A new version is built from the previous one by putting only the rows
+ * that changed, so unchanged employees are the same objects in both versions and unchanged parts of the maps
+ * are shared; a year of daily snapshots costs one org plus the day-to-day changes. Findings are kept up to date
+ * by an {@link IncrementalAnalyzer} fed with those changes, so only the affected neighbourhood is re-analyzed.
+ * <p>
+ * Diffs walk two versions side by side and skip everything they share, so their cost follows the number of
+ * changes between the two dates, not the size of the org. Versions must be added in date order.
+ * Not thread-safe while versions are added.
+ */
+public class OrgHistory {
+
+    /**
+     * The org as of one date. Immutable.
+     */
+    public static final class Version {
+        private final LocalDate date;
+        final PersistentIntMap<Employee> employees;
+        final PersistentIntMap<Finding.SalaryBand> bands;
+        final PersistentIntMap<Finding.DeepReportingLine> deepLines;
+
+        Version(LocalDate date, PersistentIntMap<Employee> employees, PersistentIntMap<Finding.SalaryBand> bands,
+                PersistentIntMap<Finding.DeepReportingLine> deepLines) {
+            this.date = date;
+            this.employees = employees;
+            this.bands = bands;
+            this.deepLines = deepLines;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public int size() {
+            return employees.size();
+        }
+
+        public Employee getEmployee(int id) {
+            Employee e = employees.get(id);
+            return e == null ? null : copy(e);
+        }
+
+        public Finding.SalaryBand getSalaryFinding(int managerId) {
+            return bands.get(managerId);
+        }
+
+        /**
+         * Salary band findings of this version, sorted by manager id.
+         */
+        public List<Finding.SalaryBand> getSalaryFindings() {
+            List<Finding.SalaryBand> findings = new ArrayList<>(bands.size());
+            bands.forEach((id, finding) -> findings.add(finding));
+            return findings;
+        }
+
+        /**
+         * Deep reporting line findings of this version, sorted by employee id.
+         */
+        public List<Finding.DeepReportingLine> getDeepReportingLines() {
+            List<Finding.DeepReportingLine> findings = new ArrayList<>(deepLines.size());
+            deepLines.forEach((id, finding) -> findings.add(finding));
+            return findings;
+        }
+    }
+
+    /**
+     * One employee that differs between two versions: hired ({@code before} is null), left ({@code after} is
+     * null) or with a changed name, salary or manager.
+     */
+    public static final class RowChange {
+        private final int id;
+        private final Employee before;
+        private final Employee after;
+
+        RowChange(int id, Employee before, Employee after) {
+            this.id = id;
+            this.before = before == null ? null : copy(before);
+            this.after = after == null ? null : copy(after);
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public Employee getBefore() {
+            return before;
+        }
+
+        public Employee getAfter() {
+            return after;
+        }
+
+        @Override
+        public String toString() {
+            return before == null ? "+ " + after : after == null ? "- " + before : before + " -> " + after;
+        }
+    }
+
+    /**
+     * Findings present in the later version only, and in the earlier version only. A finding whose figures
+     * changed is in both lists.
+     */
+    public static final class FindingDiff {
+        private final List<Finding> appeared = new ArrayList<>();
+        private final List<Finding> disappeared = new ArrayList<>();
+
+        public List<Finding> getAppeared() {
+            return appeared;
+        }
+
+        public List<Finding> getDisappeared() {
+            return disappeared;
+        }
+    }
+
+    private final int depthThreshold;
+    private final TreeMap<LocalDate, Version> versions = new TreeMap<>();
+    private IncrementalAnalyzer analyzer;
+    private PersistentIntMap.Edit<Finding.SalaryBand> bandEdit;
+    private PersistentIntMap.Edit<Finding.DeepReportingLine> deepEdit;
+
+    public OrgHistory(int depthThreshold) {
+        this.depthThreshold = depthThreshold;
+    }
+
+    /**
+     * Adds the org as of {@code date} from a CSV file, which is streamed and compared row by row with the
+     * latest version.
+     */
+    public Version add(LocalDate date, Path csv) throws IOException {
+        Builder builder = new Builder(date);
+        new EmployeeCsvReader((id, firstName, lastName, salary, managerId) -> builder.row(new Employee(id, firstName,
+                lastName, salary, managerId == EmployeeRowHandler.NO_MANAGER ? null : managerId))).read(csv);
+        return builder.build();
+    }
+
+    /**
+     * Adds the org as of {@code date}. A later row with the same id replaces an earlier one.
+     */
+    public Version add(LocalDate date, List<Employee> employees) {
+        Builder builder = new Builder(date);
+        for (Employee e : employees) builder.row(copy(e));
+        return builder.build();
+    }
+
+    public List<LocalDate> dates() {
+        return new ArrayList<>(versions.keySet());
+    }
+
+    /**
+     * The version in effect on {@code date}: the latest one added on or before it, or null.
+     */
+    public Version at(LocalDate date) {
+        Map.Entry<LocalDate, Version> entry = versions.floorEntry(date);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Employees hired, left or changed between the versions in effect on the two dates, sorted by id.
+     */
+    public List<RowChange> diffRows(LocalDate from, LocalDate to) {
+        List<RowChange> changes = new ArrayList<>();
+        PersistentIntMap.diff(employeesAt(from), employeesAt(to),
+                (id, before, after) -> changes.add(new RowChange(id, before, after)));
+        return changes;
+    }
+
+    /**
+     * Salary band and deep reporting line findings that appeared or disappeared between the versions in effect
+     * on the two dates. Band findings come first, each list sorted by id.
+     */
+    public FindingDiff diffFindings(LocalDate from, LocalDate to) {
+        Version before = at(from);
+        Version after = at(to);
+        FindingDiff diff = new FindingDiff();
+        PersistentIntMap.diff(before == null ? PersistentIntMap.empty() : before.bands,
+                after == null ? PersistentIntMap.empty() : after.bands, (id, b, a) -> record(diff, b, a));
+        PersistentIntMap.diff(before == null ? PersistentIntMap.empty() : before.deepLines,
+                after == null ? PersistentIntMap.empty() : after.deepLines, (id, b, a) -> record(diff, b, a));
+        return diff;
+    }
+
+    private static void record(FindingDiff diff, Finding before, Finding after) {
+        if (before != null) diff.disappeared.add(before);
+        if (after != null) diff.appeared.add(after);
+    }
+
+    private PersistentIntMap<Employee> employeesAt(LocalDate date) {
+        Version version = at(date);
+        return version == null ? PersistentIntMap.empty() : version.employees;
+    }
+
+    /**
+     * Collects the rows of one new version: rows equal to what the version already holds for their id are
+     * dropped on arrival, the rest are put into an edit of the latest version's employee map.
+     */
+    private final class Builder {
+        private final LocalDate date;
+        private final Version previous;
+        private final PersistentIntMap.Edit<Employee> edit;
+        private final List<Employee> changed = new ArrayList<>();
+        private final IntIntHashMap seen;
+
+        Builder(LocalDate date) {
+            if (!versions.isEmpty() && !date.isAfter(versions.lastKey())) {
+                throw new IllegalArgumentException("Version " + date + " is not after " + versions.lastKey());
+            }
+            this.date = date;
+            this.previous = versions.isEmpty() ? null : versions.lastEntry().getValue();
+            PersistentIntMap<Employee> base = previous == null ? PersistentIntMap.empty() : previous.employees;
+            this.edit = base.edit();
+            this.seen = new IntIntHashMap(Math.max(16, base.size()));
+        }
+
+        void row(Employee e) {
+            seen.put(e.id, 0);
+            if (e.equals(edit.get(e.id))) return;
+            edit.put(e.id, e);
+            changed.add(e);
+        }
+
+        Version build() {
+            List<Integer> removed = new ArrayList<>();
+            if (previous != null) {
+                previous.employees.forEach((id, e) -> {
+                    if (!seen.containsKey(id)) removed.add(id);
+                });
+            }
+            for (int id : removed) edit.remove(id);
+            PersistentIntMap<Employee> employees = edit.done();
+
+            if (analyzer == null) {
+                loadAnalyzer(employees);
+            } else {
+                bandEdit = previous.bands.edit();
+                deepEdit = previous.deepLines.edit();
+                for (Employee e : changed) analyzer.upsert(e);
+                for (int id : removed) analyzer.delete(id);
+            }
+            Version version = new Version(date, employees, bandEdit.done(), deepEdit.done());
+            // Edits are single use; the next version starts new ones from the maps just published.
+            bandEdit = null;
+            deepEdit = null;
+            versions.put(date, version);
+            return version;
+        }
+    }
+
+    private void loadAnalyzer(PersistentIntMap<Employee> employees) {
+        List<Employee> all = new ArrayList<>(employees.size());
+        employees.forEach((id, e) -> all.add(e));
+        analyzer = new IncrementalAnalyzer(all, depthThreshold);
+        bandEdit = PersistentIntMap.<Finding.SalaryBand>empty().edit();
+        deepEdit = PersistentIntMap.<Finding.DeepReportingLine>empty().edit();
+        for (Finding.SalaryBand finding : analyzer.getSalaryFindings()) bandEdit.put(finding.getManagerId(), finding);
+        for (Finding.DeepReportingLine finding : analyzer.getDeepReportingLines()) deepEdit.put(finding.getEmployeeId(), finding);
+        analyzer.setListener(new IncrementalAnalyzer.Listener() {
+            @Override
+            public void findingAdded(Finding finding) {
+                if (finding instanceof Finding.SalaryBand) {
+                    bandEdit.put(((Finding.SalaryBand) finding).getManagerId(), (Finding.SalaryBand) finding);
+                } else if (finding instanceof Finding.DeepReportingLine) {
+                    deepEdit.put(((Finding.DeepReportingLine) finding).getEmployeeId(), (Finding.DeepReportingLine) finding);
+                }
+            }
+
+            @Override
+            public void findingRemoved(Finding finding) {
+                if (finding instanceof Finding.SalaryBand) {
+                    bandEdit.remove(((Finding.SalaryBand) finding).getManagerId());
+                } else if (finding instanceof Finding.DeepReportingLine) {
+                    deepEdit.remove(((Finding.DeepReportingLine) finding).getEmployeeId());
+                }
+            }
+        });
+    }
+
+    private static Employee copy(Employee e) {
+        return new Employee(e.id, e.firstName, e.lastName, e.salary, e.managerId);
+    }
+}
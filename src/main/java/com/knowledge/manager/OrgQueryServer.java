@@ -0,0 +1,467 @@
+package com.knowledge.manager;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Long-running query service over one loaded org, on the JDK built-in {@link HttpServer}.
+ * <p>
+ * The table and its indexes live in an immutable {@link IndexedOrg} behind an {@link AtomicReference}. Every
+ * request reads the reference once and answers from that org only; {@code POST /reload} builds a new org on
+ * the side and swaps it in, so queries never wait for a rebuild. Reloads are serialized among themselves.
+ * <p>
+ * Endpoints (all GET except reload, all answer JSON):
+ * <ul>
+ *     <li>{@code /status}: rows, roots and load time of the current org;</li>
+ *     <li>{@code /band?id=N}: direct-report salary band check of a manager;</li>
+ *     <li>{@code /depth?id=N}: managers between the employee and the top, and whether that is too long;</li>
+ *     <li>{@code /chain?id=N}: the managers from the employee up to the CEO;</li>
+ *     <li>{@code /subtree?id=N&limit=M}: aggregates of everyone below the employee and the first M of them;</li>
+ *     <li>{@code /manager?id=N&k=K}: the K-th manager above the employee (1 is the direct manager);</li>
+ *     <li>{@code /common-manager?id=N&other=M}: the lowest manager both employees report to;</li>
+ *     <li>{@code /in-chain?id=N&manager=M}: whether M is above N in the reporting line;</li>
+ *     <li>{@code /metrics}: load phase times, index sizes and query counts, see {@link Metrics};</li>
+ *     <li>{@code POST /reload}: re-reads the source and swaps the org.</li>
+ * </ul>
+ * Requests run on virtual threads when the JDK has them (looked up reflectively, the build targets Java 8),
+ * otherwise on a fixed pool.
+ */
+public class OrgQueryServer {
+
+    private static final int DEFAULT_SUBTREE_LIMIT = 1000;
+
+    /**
+     * Everything a query needs, built once per load and never modified.
+     */
+    public static final class IndexedOrg {
+        final EmployeeTable table;
+        final StructureValidator structure;
+        final DepthIndex depths;
+        final SubtreeAggregates aggregates;
+        final AncestorIndex ancestors;
+        final long loadedAt;
+
+        IndexedOrg(EmployeeTable table, DepthIndex depths) {
+            this.table = table;
+            this.structure = StructureValidator.validate(table);
+            this.depths = depths;
+            this.aggregates = SubtreeAggregates.build(table, depths);
+            this.ancestors = AncestorIndex.build(table);
+            this.loadedAt = System.currentTimeMillis();
+        }
+
+        public EmployeeTable getTable() {
+            return table;
+        }
+    }
+
+    private final Path source;
+    private final Path snapshot;
+    private final CsvParseMode parseMode;
+    private final int depthThreshold;
+    private final Metrics metrics;
+    private final AtomicReference<IndexedOrg> current = new AtomicReference<>();
+    private final Object reloadLock = new Object();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param source         CSV file to serve.
+     * @param snapshot       Binary snapshot to load from and refresh, or null to always parse the CSV.
+     * @param parseMode      How the CSV is parsed.
+     * @param depthThreshold Maximum allowed number of managers between an employee and the CEO.
+     */
+    public OrgQueryServer(Path source, Path snapshot, CsvParseMode parseMode, int depthThreshold) {
+        this(source, snapshot, parseMode, depthThreshold, Metrics.create());
+    }
+
+    /**
+     * @param metrics Where load times, index sizes and per-endpoint query counts are recorded; registered as
+     *                an MBean on {@link #start(int)}.
+     */
+    public OrgQueryServer(Path source, Path snapshot, CsvParseMode parseMode, int depthThreshold, Metrics metrics) {
+        this.source = source;
+        this.snapshot = snapshot;
+        this.parseMode = parseMode;
+        this.depthThreshold = depthThreshold;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Loads the org and starts listening; port 0 picks a free port.
+     *
+     * @return The bound port.
+     */
+    public int start(int port) throws IOException {
+        if (!reload()) throw new IOException("Could not load " + source);
+        metrics.registerMBean();
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        query("/status", this::status);
+        query("/band", this::band);
+        query("/depth", this::depth);
+        query("/chain", this::chain);
+        query("/subtree", this::subtree);
+        query("/manager", this::manager);
+        query("/common-manager", this::commonManager);
+        query("/in-chain", this::inChain);
+        query("/metrics", (org, params) -> new Response(200, metrics.getSummaryJson()));
+        server.createContext("/reload", this::handleReload);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        if (server != null) server.stop(0);
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Builds a fresh org from the source and swaps it in. Queries keep using the previous org until the swap.
+     *
+     * @return false if the source could not be read; the previous org stays in place.
+     */
+    public boolean reload() {
+        synchronized (reloadLock) {
+            long start = metrics.start();
+            IndexedOrg org;
+            if (snapshot != null) {
+                EmployeeSnapshot loaded = EmployeeSnapshot.loadOrBuild(source, snapshot, parseMode, metrics);
+                if (loaded == null) return false;
+                org = new IndexedOrg(loaded.getTable(), loaded.getDepths());
+            } else {
+                EmployeeTable table = ManagerSalaryAnalyzer.readEmployeeTable(source, parseMode, metrics);
+                if (table == null) return false;
+                long depthStart = metrics.start();
+                DepthIndex depths = DepthIndex.build(table);
+                metrics.stop("depth", depthStart);
+                org = new IndexedOrg(table, depths);
+            }
+            metrics.indexSizes(org.table);
+            current.set(org);
+            metrics.stop("reload", start);
+            metrics.increment("reloads");
+            return true;
+        }
+    }
+
+    public IndexedOrg current() {
+        return current.get();
+    }
+
+    public Metrics metrics() {
+        return metrics;
+    }
+
+    private interface Query {
+        Response answer(IndexedOrg org, Map<String, String> params);
+    }
+
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Serves a read-only endpoint; its metric names are built here once rather than on every request.
+     */
+    private void query(String endpoint, Query query) {
+        String phase = "query" + endpoint;
+        String counter = "queries" + endpoint;
+        server.createContext(endpoint, exchange -> handle(exchange, endpoint, phase, counter, query));
+    }
+
+    private void handle(HttpExchange exchange, String endpoint, String phase, String counter, Query query)
+            throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            send(exchange, error(405, "Use GET"));
+            return;
+        }
+        long start = metrics.start();
+        Response response;
+        try {
+            response = query.answer(current.get(), parseQuery(exchange.getRequestURI().getRawQuery()));
+        } catch (IllegalArgumentException e) {
+            response = error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            response = error(500, "Error answering " + endpoint + ": " + e);
+        }
+        metrics.stop(phase, start);
+        metrics.increment(counter);
+        send(exchange, response);
+    }
+
+    private void handleReload(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, error(405, "Use POST"));
+            return;
+        }
+        if (!reload()) {
+            send(exchange, error(500, "Could not load " + source));
+            return;
+        }
+        send(exchange, status(current.get(), new HashMap<>()));
+    }
+
+    private Response status(IndexedOrg org, Map<String, String> params) {
+        StringBuilder json = new StringBuilder("{\"rows\":").append(org.table.size)
+                .append(",\"roots\":").append(org.structure.rootCount())
+                .append(",\"maxDepth\":").append(org.depths.maxDepth())
+                .append(",\"loadedAt\":").append(org.loadedAt).append('}');
+        return new Response(200, json.toString());
+    }
+
+    private Response band(IndexedOrg org, Map<String, String> params) {
+        int row = row(org, params);
+        if (row < 0) return notFound(params);
+        EmployeeTable table = org.table;
+        StringBuilder json = employee(new StringBuilder("{"), table, row);
+        int reports = table.reportCount(row);
+        json.append(",\"reportCount\":").append(reports);
+        if (reports == 0) return new Response(200, json.append(",\"status\":\"NOT_A_MANAGER\"}").toString());
+        if (org.structure.isCEO(row)) return new Response(200, json.append(",\"status\":\"CEO\"}").toString());
+
+        double sum = 0;
+        for (int i = 0; i < reports; i++) sum += table.salary(table.report(row, i));
+        double average = sum / reports;
+        FindingWriter.appendJsonNumber(json.append(",\"averageReportSalary\":"), average);
+        FindingWriter.appendJsonNumber(json.append(",\"minExpectedSalary\":"), average * SalaryBandAnalyzer.MIN_FACTOR);
+        FindingWriter.appendJsonNumber(json.append(",\"maxExpectedSalary\":"), average * SalaryBandAnalyzer.MAX_FACTOR);
+        Finding[] finding = new Finding[1];
+        SalaryBandAnalyzer.evaluate(table, new int[]{row}, 0, 1, f -> finding[0] = f);
+        json.append(",\"status\":\"").append(finding[0] == null ? "OK" : finding[0].getKind().name()).append('"');
+        if (finding[0] != null) json.append(",\"finding\":").append(toJson(finding[0]));
+        return new Response(200, json.append('}').toString());
+    }
+
+    private Response depth(IndexedOrg org, Map<String, String> params) {
+        int row = row(org, params);
+        if (row < 0) return notFound(params);
+        int depth = org.depths.depth(row);
+        StringBuilder json = employee(new StringBuilder("{"), org.table, row);
+        if (depth == DepthIndex.CYCLE) {
+            json.append(",\"circular\":true}");
+        } else {
+            json.append(",\"managerCount\":").append(depth)
+                    .append(",\"threshold\":").append(depthThreshold)
+                    .append(",\"tooLong\":").append(depth > depthThreshold).append('}');
+        }
+        return new Response(200, json.toString());
+    }
+
+    private Response chain(IndexedOrg org, Map<String, String> params) {
+        int row = row(org, params);
+        if (row < 0) return notFound(params);
+        EmployeeTable table = org.table;
+        StringBuilder json = employee(new StringBuilder("{"), table, row).append(",\"managers\":[");
+        Set<Integer> seen = new HashSet<>();
+        seen.add(row);
+        int r = row;
+        String end = "CEO";
+        boolean first = true;
+        while (true) {
+            int m = table.managerIdx[r];
+            if (m == EmployeeTable.NO_MANAGER) break;
+            if (m == EmployeeTable.MISSING_MANAGER) {
+                end = "MISSING_MANAGER";
+                break;
+            }
+            if (!seen.add(m)) {
+                end = "CIRCULAR";
+                break;
+            }
+            if (!first) json.append(',');
+            employee(json.append('{'), table, m).append('}');
+            first = false;
+            r = m;
+        }
+        json.append("],\"end\":\"").append(end).append('"');
+        if (end.equals("MISSING_MANAGER")) json.append(",\"missingManagerId\":").append(table.managerIds[r]);
+        return new Response(200, json.append('}').toString());
+    }
+
+    private Response subtree(IndexedOrg org, Map<String, String> params) {
+        int row = row(org, params);
+        if (row < 0) return notFound(params);
+        int limit = params.containsKey("limit") ? parseInt(params.get("limit"), "limit") : DEFAULT_SUBTREE_LIMIT;
+        if (limit < 0) throw new IllegalArgumentException("Invalid limit: " + params.get("limit"));
+        EmployeeTable table = org.table;
+        SubtreeAggregates aggregates = org.aggregates;
+        StringBuilder json = employee(new StringBuilder("{"), table, row)
+                .append(",\"headcount\":").append(aggregates.headcount(row));
+        FindingWriter.appendJsonNumber(json.append(",\"totalSalary\":"), aggregates.totalSalary(row));
+        if (aggregates.headcount(row) > 0) {
+            FindingWriter.appendJsonNumber(json.append(",\"minSalary\":"), aggregates.minSalary(row));
+            FindingWriter.appendJsonNumber(json.append(",\"maxSalary\":"), aggregates.maxSalary(row));
+            FindingWriter.appendJsonNumber(json.append(",\"averageSalary\":"), aggregates.averageSalary(row));
+        }
+        // Breadth first, so a truncated listing holds the closest reports.
+        json.append(",\"employees\":[");
+        int[] queue = new int[Math.min(limit, aggregates.headcount(row))];
+        int head = 0;
+        int tail = 0;
+        int r = row;
+        outer:
+        while (true) {
+            for (int i = 0; i < table.reportCount(r); i++) {
+                if (tail == queue.length) break outer;
+                int report = table.report(r, i);
+                if (tail > 0) json.append(',');
+                employee(json.append('{'), table, report).append(",\"managerId\":").append(table.ids[r]).append('}');
+                queue[tail++] = report;
+            }
+            if (head == tail) break;
+            r = queue[head++];
+        }
+        json.append("],\"truncated\":").append(tail < aggregates.headcount(row)).append('}');
+        return new Response(200, json.toString());
+    }
+
+    private Response manager(IndexedOrg org, Map<String, String> params) {
+        int row = row(org, params);
+        if (row < 0) return notFound(params);
+        String k = params.get("k");
+        int levels = k == null ? 1 : parseInt(k, "k");
+        if (levels < 0) throw new IllegalArgumentException("Invalid k: " + k);
+        int manager = org.ancestors.managerAbove(row, levels);
+        StringBuilder json = employee(new StringBuilder("{"), org.table, row).append(",\"k\":").append(levels)
+                .append(",\"manager\":");
+        if (manager == AncestorIndex.NONE) json.append("null");
+        else employee(json.append('{'), org.table, manager).append('}');
+        return new Response(200, json.append('}').toString());
+    }
+
+    private Response commonManager(IndexedOrg org, Map<String, String> params) {
+        int row = row(org, params);
+        if (row < 0) return notFound(params);
+        int other = row(org, params, "other");
+        if (other < 0) return notFound(params, "other");
+        int manager = org.ancestors.lowestCommonManager(row, other);
+        StringBuilder json = new StringBuilder("{\"employeeId\":").append(org.table.ids[row])
+                .append(",\"otherId\":").append(org.table.ids[other]).append(",\"commonManager\":");
+        if (manager == AncestorIndex.NONE) json.append("null");
+        else employee(json.append('{'), org.table, manager).append('}');
+        return new Response(200, json.append('}').toString());
+    }
+
+    private Response inChain(IndexedOrg org, Map<String, String> params) {
+        int row = row(org, params);
+        if (row < 0) return notFound(params);
+        int manager = row(org, params, "manager");
+        if (manager < 0) return notFound(params, "manager");
+        return new Response(200, new StringBuilder("{\"employeeId\":").append(org.table.ids[row])
+                .append(",\"managerId\":").append(org.table.ids[manager])
+                .append(",\"inChain\":").append(org.ancestors.isManagerOf(manager, row)).append('}').toString());
+    }
+
+    private static int row(IndexedOrg org, Map<String, String> params) {
+        return row(org, params, "id");
+    }
+
+    private static int row(IndexedOrg org, Map<String, String> params, String name) {
+        String id = params.get(name);
+        if (id == null) throw new IllegalArgumentException("Missing " + name + " parameter");
+        return org.table.rowOf(parseInt(id, name));
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static StringBuilder employee(StringBuilder json, EmployeeTable table, int row) {
+        json.append("\"employeeId\":").append(table.ids[row]).append(",\"firstName\":");
+        FindingWriter.appendJsonString(json, table.firstName(row)).append(",\"lastName\":");
+        FindingWriter.appendJsonString(json, table.lastName(row)).append(",\"salary\":");
+        return FindingWriter.appendJsonNumber(json, table.salaries[row]);
+    }
+
+    private static String toJson(Finding finding) {
+        StringWriter out = new StringWriter();
+        FindingWriter writer = new FindingWriter(out, FindingWriter.Format.JSON_LINES);
+        writer.accept(finding);
+        writer.flush();
+        return out.toString().trim();
+    }
+
+    private static Response notFound(Map<String, String> params) {
+        return notFound(params, "id");
+    }
+
+    private static Response notFound(Map<String, String> params, String name) {
+        return error(404, "No employee with id " + params.get(name));
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, FindingWriter.appendJsonString(new StringBuilder("{\"error\":"), message).append('}').toString());
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        try {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"), URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+                }
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Virtual thread per request on JDKs that have them, otherwise a fixed pool sized to the machine.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.knowledge.manager;
+
+/**
+ * One check of a {@link RuleSet}. Rules do not walk the org themselves: the rule set computes the aggregates
+ * of each employee once and hands the same {@link RowStats} to every rule, so a rule costs one call per row.
+ */
+@FunctionalInterface
+public interface OrgRule {
+
+    /**
+     * Checks one employee and emits any finding into {@code sink}. {@code row} is reused for the next employee,
+     * so a rule must not keep it.
+     */
+    void evaluate(RowStats row, FindingSink sink);
+}
@@ -0,0 +1,237 @@
+package com.knowledge.manager;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable int-keyed map that shares structure between versions: a fixed-depth 32-way radix trie over the key
+ * bits, with bitmap-compressed nodes. Updating a key copies the seven nodes on its path and nothing else, so
+ * any number of versions that differ by a few keys cost little more than one.
+ * <p>
+ * Keys are ordered as signed ints. Updates made through the same {@link Edit} modify the nodes that edit
+ * already copied in place, so a batch of changes to neighbouring keys copies each touched node once; a map
+ * returned by {@link Edit#done()} must not be edited again through that edit.
+ * <p>
+ * {@link #diff} walks two versions together and skips every subtree they share, so comparing two versions
+ * costs the number of keys that differ times the trie depth, not the size of the map.
+ */
+final class PersistentIntMap<V> {
+
+    private static final int BITS = 5;
+    private static final int LEVELS = 7;
+    // Shift of the top level: its node only uses the two highest key bits.
+    private static final int TOP_SHIFT = BITS * (LEVELS - 1);
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(null, 0);
+
+    /**
+     * Receives the keys whose values differ between two versions, in key order; absent values are null.
+     */
+    interface DiffVisitor<V> {
+        void changed(int key, V before, V after);
+    }
+
+    private static final class Node {
+        final Object owner;
+        int bitmap;
+        // Child nodes, or values on the last level, packed in bit order.
+        Object[] slots;
+
+        Node(Object owner, int bitmap, Object[] slots) {
+            this.owner = owner;
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    private final Node root;
+    private final int size;
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    V get(int key) {
+        return get(root, key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V get(Node root, int key) {
+        int bits = key ^ Integer.MIN_VALUE;
+        Node node = root;
+        for (int shift = TOP_SHIFT; node != null; shift -= BITS) {
+            int bit = 1 << ((bits >>> shift) & 31);
+            if ((node.bitmap & bit) == 0) return null;
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (shift == 0) return (V) slot;
+            node = (Node) slot;
+        }
+        return null;
+    }
+
+    /**
+     * Calls {@code action} for every entry in key order.
+     */
+    void forEach(BiConsumer<Integer, V> action) {
+        if (root != null) forEach(root, TOP_SHIFT, 0, action);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Node node, int shift, int prefix, BiConsumer<Integer, V> action) {
+        int bitmap = node.bitmap;
+        for (int i = 0; bitmap != 0; i++, bitmap &= bitmap - 1) {
+            int bits = prefix | (Integer.numberOfTrailingZeros(bitmap) << shift);
+            if (shift == 0) action.accept(bits ^ Integer.MIN_VALUE, (V) node.slots[i]);
+            else forEach((Node) node.slots[i], shift - BITS, bits, action);
+        }
+    }
+
+    Edit<V> edit() {
+        return new Edit<>(this);
+    }
+
+    /**
+     * Batch of updates producing a new version; the version it started from is left unchanged.
+     */
+    static final class Edit<V> {
+        private final Object owner = new Object();
+        private Node root;
+        private int size;
+
+        private Edit(PersistentIntMap<V> base) {
+            this.root = base.root;
+            this.size = base.size;
+        }
+
+        V get(int key) {
+            return PersistentIntMap.get(root, key);
+        }
+
+        void put(int key, V value) {
+            if (value == null) throw new IllegalArgumentException("null value for key " + key);
+            root = put(root, TOP_SHIFT, key ^ Integer.MIN_VALUE, value);
+        }
+
+        void remove(int key) {
+            if (root != null) root = remove(root, TOP_SHIFT, key ^ Integer.MIN_VALUE);
+        }
+
+        PersistentIntMap<V> done() {
+            return root == null ? empty() : new PersistentIntMap<>(root, size);
+        }
+
+        private Node editable(Node node) {
+            return node.owner == owner ? node : new Node(owner, node.bitmap, node.slots.clone());
+        }
+
+        private Node put(Node node, int shift, int bits, Object value) {
+            int bit = 1 << ((bits >>> shift) & 31);
+            if (node == null) {
+                size += shift == 0 ? 1 : 0;
+                Object child = shift == 0 ? value : put(null, shift - BITS, bits, value);
+                return new Node(owner, bit, new Object[]{child});
+            }
+            int index = Integer.bitCount(node.bitmap & (bit - 1));
+            if ((node.bitmap & bit) == 0) {
+                Object child = shift == 0 ? value : put(null, shift - BITS, bits, value);
+                if (shift == 0) size++;
+                Object[] slots = new Object[node.slots.length + 1];
+                System.arraycopy(node.slots, 0, slots, 0, index);
+                slots[index] = child;
+                System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+                if (node.owner == owner) {
+                    node.bitmap |= bit;
+                    node.slots = slots;
+                    return node;
+                }
+                return new Node(owner, node.bitmap | bit, slots);
+            }
+            Object current = node.slots[index];
+            Object child = shift == 0 ? value : put((Node) current, shift - BITS, bits, value);
+            if (child == current) return node;
+            Node updated = editable(node);
+            updated.slots[index] = child;
+            return updated;
+        }
+
+        // Returns null when the node ends up empty.
+        private Node remove(Node node, int shift, int bits) {
+            int bit = 1 << ((bits >>> shift) & 31);
+            if ((node.bitmap & bit) == 0) return node;
+            int index = Integer.bitCount(node.bitmap & (bit - 1));
+            Object current = node.slots[index];
+            Node child = shift == 0 ? null : remove((Node) current, shift - BITS, bits);
+            if (shift != 0 && child == current) return node;
+            if (shift == 0) size--;
+            if (child != null) {
+                Node updated = editable(node);
+                updated.slots[index] = child;
+                return updated;
+            }
+            if (node.bitmap == bit) return null;
+            Object[] slots = new Object[node.slots.length - 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            System.arraycopy(node.slots, index + 1, slots, index, slots.length - index);
+            if (node.owner == owner) {
+                node.bitmap &= ~bit;
+                node.slots = slots;
+                return node;
+            }
+            return new Node(owner, node.bitmap & ~bit, slots);
+        }
+    }
+
+    /**
+     * Reports every key whose value is not {@link Object#equals equal} in {@code before} and {@code after}.
+     */
+    static <V> void diff(PersistentIntMap<V> before, PersistentIntMap<V> after, DiffVisitor<V> visitor) {
+        diff(before.root, after.root, TOP_SHIFT, 0, visitor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void diff(Node before, Node after, int shift, int prefix, DiffVisitor<V> visitor) {
+        if (before == after) return;
+        int beforeBits = before == null ? 0 : before.bitmap;
+        int afterBits = after == null ? 0 : after.bitmap;
+        int all = beforeBits | afterBits;
+        for (; all != 0; all &= all - 1) {
+            int bit = all & -all;
+            Object b = (beforeBits & bit) == 0 ? null : before.slots[Integer.bitCount(beforeBits & (bit - 1))];
+            Object a = (afterBits & bit) == 0 ? null : after.slots[Integer.bitCount(afterBits & (bit - 1))];
+            int bits = prefix | (Integer.numberOfTrailingZeros(bit) << shift);
+            if (shift == 0) {
+                if (b == null ? a != null : !b.equals(a)) visitor.changed(bits ^ Integer.MIN_VALUE, (V) b, (V) a);
+            } else {
+                diff((Node) b, (Node) a, shift - BITS, bits, visitor);
+            }
+        }
+    }
+
+    /**
+     * Number of trie nodes reachable from any of the maps, counting shared nodes once; for memory tests.
+     */
+    static int countNodes(List<? extends PersistentIntMap<?>> maps) {
+        Set<Node> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PersistentIntMap<?> map : maps) {
+            if (map.root != null) countNodes(map.root, TOP_SHIFT, seen);
+        }
+        return seen.size();
+    }
+
+    private static void countNodes(Node node, int shift, Set<Node> seen) {
+        if (!seen.add(node) || shift == 0) return;
+        for (Object child : node.slots) countNodes((Node) child, shift - BITS, seen);
+    }
+}
@@ -0,0 +1,40 @@
+package com.knowledge.manager;
+
+import java.util.Arrays;
+
+/**
+ * Per-worker row storage, kept columnar so a range or shard does not allocate an object per row.
+ * Rows are replayed in the order they arrived.
+ */
+final class RowBuffer implements EmployeeRowHandler {
+    private int size;
+    private int[] ids = new int[1024];
+    private double[] salaries = new double[1024];
+    private int[] managerIds = new int[1024];
+    private String[] firstNames = new String[1024];
+    private String[] lastNames = new String[1024];
+
+    @Override
+    public void onRow(int id, String firstName, String lastName, double salary, int managerId) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            salaries = Arrays.copyOf(salaries, capacity);
+            managerIds = Arrays.copyOf(managerIds, capacity);
+            firstNames = Arrays.copyOf(firstNames, capacity);
+            lastNames = Arrays.copyOf(lastNames, capacity);
+        }
+        ids[size] = id;
+        salaries[size] = salary;
+        managerIds[size] = managerId;
+        firstNames[size] = firstName;
+        lastNames[size] = lastName;
+        size++;
+    }
+
+    void replay(EmployeeRowHandler target) {
+        for (int i = 0; i < size; i++) {
+            target.onRow(ids[i], firstNames[i], lastNames[i], salaries[i], managerIds[i]);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.knowledge.manager;
+
+/**
+ * What {@link OrgRule}s see of one employee: their own columns, depth, their manager's and skip-level manager's
+ * salary, and count, sum, min and max of their direct reports' salaries.
+ * <p>
+ * One instance is refilled for every row by {@link RuleSet#evaluate}; the aggregates are computed once per row
+ * whatever the number of rules. Names are only looked up when a rule asks for them.
+ */
+public final class RowStats {
+
+    private final EmployeeTable table;
+    private final DepthIndex depths;
+    private final int rootCount;
+
+    int row;
+    int reportCount;
+    double reportSum;
+    double reportMin;
+    double reportMax;
+
+    RowStats(EmployeeTable table, DepthIndex depths, int rootCount) {
+        this.table = table;
+        this.depths = depths;
+        this.rootCount = rootCount;
+    }
+
+    void load(int r) {
+        row = r;
+        int begin = table.childOffsets[r];
+        int end = table.childOffsets[r + 1];
+        double sum = 0.0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int c = begin; c < end; c++) {
+            double salary = table.salaries[table.childIdx[c]];
+            sum += salary;
+            if (salary < min) min = salary;
+            if (salary > max) max = salary;
+        }
+        reportCount = end - begin;
+        reportSum = sum;
+        reportMin = min;
+        reportMax = max;
+    }
+
+    public int row() {
+        return row;
+    }
+
+    public int id() {
+        return table.ids[row];
+    }
+
+    public String firstName() {
+        return table.firstName(row);
+    }
+
+    public String lastName() {
+        return table.lastName(row);
+    }
+
+    public double salary() {
+        return table.salaries[row];
+    }
+
+    /**
+     * Managers between the employee and the top, or {@link DepthIndex#CYCLE}.
+     */
+    public int depth() {
+        return depths.depth(row);
+    }
+
+    // CEO: no manager, and the only such employee in the company
+    public boolean isCEO() {
+        return table.managerIdx[row] == EmployeeTable.NO_MANAGER && rootCount == 1;
+    }
+
+    public int reportCount() {
+        return reportCount;
+    }
+
+    public double reportSalarySum() {
+        return reportSum;
+    }
+
+    /**
+     * Lowest direct report salary, NaN without reports.
+     */
+    public double reportSalaryMin() {
+        return reportCount == 0 ? Double.NaN : reportMin;
+    }
+
+    /**
+     * Highest direct report salary, NaN without reports.
+     */
+    public double reportSalaryMax() {
+        return reportCount == 0 ? Double.NaN : reportMax;
+    }
+
+    public double reportSalaryAverage() {
+        return reportCount == 0 ? Double.NaN : reportSum / reportCount;
+    }
+
+    /**
+     * Salary of the direct manager, NaN when there is none in the table.
+     */
+    public double managerSalary() {
+        int m = table.managerIdx[row];
+        return m < 0 ? Double.NaN : table.salaries[m];
+    }
+
+    /**
+     * Salary of the manager's manager, NaN when there is none in the table.
+     */
+    public double skipManagerSalary() {
+        int m = table.managerIdx[row];
+        if (m < 0) return Double.NaN;
+        int skip = table.managerIdx[m];
+        return skip < 0 ? Double.NaN : table.salaries[skip];
+    }
+}
@@ -0,0 +1,346 @@
+package com.knowledge.manager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compensation and structure rules evaluated together in one pass over the org.
+ * <p>
+ * {@link #evaluate} visits each row once and computes its {@link RowStats} (direct-report count/sum/min/max,
+ * depth, manager and skip-level salaries), so adding a rule never adds another scan of the table.
+ * <p>
+ * When the set is built, the limits of the built-in rules are also folded into one combined bound per measure:
+ * the lowest depth threshold, the narrowest band, span and so on. A row within every combined bound cannot
+ * break any built-in rule and is skipped after a handful of comparisons, however many rules there are; only
+ * the other rows are handed to the rules one by one. Custom rules see every row.
+ * Findings come out in row order, and for one row in the order the rules were added.
+ * <p>
+ * Built-in rules:
+ * <ul>
+ *     <li>{@code band MIN MAX [FROM-TO]}: direct-report salary band, optionally only for managers at depths
+ *     FROM to TO (a stand-in for job level, which the export does not have); emits {@link Finding.SalaryBand};</li>
+ *     <li>{@code max-depth N}: more than N managers up to the top; emits {@link Finding.DeepReportingLine};</li>
+ *     <li>{@code span-of-control MIN MAX}: number of direct reports of a manager;</li>
+ *     <li>{@code skip-level-ratio MIN}: the manager's manager earns at least MIN times the employee;</li>
+ *     <li>{@code pay-compression MIN}: highest over lowest salary among the direct reports of one manager.</li>
+ * </ul>
+ * The last three emit {@link Finding.RuleViolation}. Custom rules are added with {@link Builder#add(OrgRule)}.
+ */
+public final class RuleSet {
+
+    private final OrgRule[] rules;
+    private final boolean hasCustomRules;
+    // Combined bounds of the built-in rules; a row inside all of them breaks none.
+    private final int depthThreshold;
+    private final double bandMinFactor;
+    private final double bandMaxFactor;
+    private final int spanMin;
+    private final int spanMax;
+    private final double skipLevelMinRatio;
+    private final double compressionMinSpread;
+
+    private RuleSet(OrgRule[] rules) {
+        this.rules = rules;
+        boolean custom = false;
+        int depth = Integer.MAX_VALUE;
+        double bandMin = Double.NEGATIVE_INFINITY;
+        double bandMax = Double.POSITIVE_INFINITY;
+        int minReports = Integer.MIN_VALUE;
+        int maxReports = Integer.MAX_VALUE;
+        double skipLevel = Double.NEGATIVE_INFINITY;
+        double spread = Double.NEGATIVE_INFINITY;
+        for (OrgRule rule : rules) {
+            if (rule instanceof SalaryBandRule) {
+                bandMin = Math.max(bandMin, ((SalaryBandRule) rule).minFactor);
+                bandMax = Math.min(bandMax, ((SalaryBandRule) rule).maxFactor);
+            } else if (rule instanceof DepthRule) {
+                depth = Math.min(depth, ((DepthRule) rule).threshold);
+            } else if (rule instanceof SpanOfControlRule) {
+                minReports = Math.max(minReports, ((SpanOfControlRule) rule).minReports);
+                maxReports = Math.min(maxReports, ((SpanOfControlRule) rule).maxReports);
+            } else if (rule instanceof SkipLevelRatioRule) {
+                skipLevel = Math.max(skipLevel, ((SkipLevelRatioRule) rule).minRatio);
+            } else if (rule instanceof PayCompressionRule) {
+                spread = Math.max(spread, ((PayCompressionRule) rule).minSpread);
+            } else {
+                custom = true;
+            }
+        }
+        hasCustomRules = custom;
+        depthThreshold = depth;
+        bandMinFactor = bandMin;
+        bandMaxFactor = bandMax;
+        spanMin = minReports;
+        spanMax = maxReports;
+        skipLevelMinRatio = skipLevel;
+        compressionMinSpread = spread;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The checks the analyzer has always run: the 1.2x - 1.5x band and the depth threshold.
+     */
+    public static RuleSet defaults(int depthThreshold) {
+        return builder().salaryBand(SalaryBandAnalyzer.MIN_FACTOR, SalaryBandAnalyzer.MAX_FACTOR).maxDepth(depthThreshold).build();
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    public void evaluate(EmployeeTable table, FindingSink sink) {
+        evaluate(table, DepthIndex.build(table), StructureValidator.validate(table), sink);
+    }
+
+    /**
+     * Runs every rule on every row, in one pass.
+     */
+    public void evaluate(EmployeeTable table, DepthIndex depths, StructureValidator structure, FindingSink sink) {
+        RowStats stats = new RowStats(table, depths, structure.rootCount());
+        OrgRule[] rules = this.rules;
+        for (int r = 0; r < table.size; r++) {
+            stats.load(r);
+            if (!hasCustomRules && withinAllBounds(stats)) continue;
+            for (OrgRule rule : rules) rule.evaluate(stats, sink);
+        }
+    }
+
+    /**
+     * True when no built-in rule can fire for the row. Each test mirrors the rule's own comparison against the
+     * combined limit, so it never skips a row that one of the rules would report.
+     */
+    private boolean withinAllBounds(RowStats row) {
+        if (row.depth() > depthThreshold) return false;
+        double salary = row.salary();
+        int reports = row.reportCount;
+        if (reports > 0) {
+            if (reports < spanMin || reports > spanMax) return false;
+            double average = row.reportSum / reports;
+            // Negative averages flip the band; leave those rows to the rules.
+            if (!(average >= 0) || salary < average * bandMinFactor || salary > average * bandMaxFactor) return false;
+            if (reports >= 2 && row.reportMax / row.reportMin < compressionMinSpread) return false;
+        }
+        return !(row.skipManagerSalary() / salary < skipLevelMinRatio);
+    }
+
+    /**
+     * Reads a rule file: one built-in rule per line as listed in the class comment, {@code #} starts a comment.
+     */
+    public static RuleSet load(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException for an unknown rule or bad arguments, naming the line.
+     */
+    public static RuleSet parse(List<String> lines) {
+        Builder builder = builder();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            String[] parts = line.split("\\s+");
+            try {
+                switch (parts[0]) {
+                    case "band":
+                        if (parts.length == 3) {
+                            builder.salaryBand(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                        } else {
+                            expectArgs(parts, 3);
+                            String[] range = parts[3].split("-");
+                            if (range.length != 2) throw new IllegalArgumentException("expected a depth range like 2-3");
+                            builder.salaryBand(Integer.parseInt(range[0]), Integer.parseInt(range[1]),
+                                    Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                        }
+                        break;
+                    case "max-depth":
+                        expectArgs(parts, 1);
+                        builder.maxDepth(Integer.parseInt(parts[1]));
+                        break;
+                    case "span-of-control":
+                        expectArgs(parts, 2);
+                        builder.spanOfControl(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                        break;
+                    case "skip-level-ratio":
+                        expectArgs(parts, 1);
+                        builder.skipLevelRatio(Double.parseDouble(parts[1]));
+                        break;
+                    case "pay-compression":
+                        expectArgs(parts, 1);
+                        builder.payCompression(Double.parseDouble(parts[1]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown rule " + parts[0]);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rule line " + (i + 1) + " (" + line + "): " + e.getMessage(), e);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void expectArgs(String[] parts, int count) {
+        if (parts.length != count + 1) {
+            throw new IllegalArgumentException("expected " + count + " argument" + (count == 1 ? "" : "s"));
+        }
+    }
+
+    public static final class Builder {
+        private final List<OrgRule> rules = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder add(OrgRule rule) {
+            rules.add(rule);
+            return this;
+        }
+
+        /**
+         * Manager salary between {@code minFactor} and {@code maxFactor} times the average of the direct reports.
+         */
+        public Builder salaryBand(double minFactor, double maxFactor) {
+            return salaryBand(Integer.MIN_VALUE, Integer.MAX_VALUE, minFactor, maxFactor);
+        }
+
+        /**
+         * Like {@link #salaryBand(double, double)}, only for managers with {@code fromDepth} to {@code toDepth}
+         * managers above them.
+         */
+        public Builder salaryBand(int fromDepth, int toDepth, double minFactor, double maxFactor) {
+            if (minFactor > maxFactor) throw new IllegalArgumentException("band minimum above maximum");
+            return add(new SalaryBandRule(fromDepth, toDepth, minFactor, maxFactor));
+        }
+
+        public Builder maxDepth(int threshold) {
+            return add(new DepthRule(threshold));
+        }
+
+        public Builder spanOfControl(int minReports, int maxReports) {
+            if (minReports > maxReports) throw new IllegalArgumentException("span minimum above maximum");
+            return add(new SpanOfControlRule(minReports, maxReports));
+        }
+
+        public Builder skipLevelRatio(double minRatio) {
+            return add(new SkipLevelRatioRule(minRatio));
+        }
+
+        public Builder payCompression(double minSpread) {
+            return add(new PayCompressionRule(minSpread));
+        }
+
+        public RuleSet build() {
+            return new RuleSet(rules.toArray(new OrgRule[0]));
+        }
+    }
+
+    private static final class SalaryBandRule implements OrgRule {
+        private final int fromDepth;
+        private final int toDepth;
+        private final double minFactor;
+        private final double maxFactor;
+
+        SalaryBandRule(int fromDepth, int toDepth, double minFactor, double maxFactor) {
+            this.fromDepth = fromDepth;
+            this.toDepth = toDepth;
+            this.minFactor = minFactor;
+            this.maxFactor = maxFactor;
+        }
+
+        @Override
+        public void evaluate(RowStats row, FindingSink sink) {
+            int reports = row.reportCount;
+            if (reports == 0 || row.isCEO()) return;
+            int depth = row.depth();
+            if (depth < fromDepth || depth > toDepth) return;
+            Finding finding = SalaryBandAnalyzer.band(row.id(), row.firstName(), row.lastName(), row.salary(), reports,
+                    row.reportSum, row.reportMin, row.reportMax, minFactor, maxFactor);
+            if (finding != null) sink.accept(finding);
+        }
+    }
+
+    private static final class DepthRule implements OrgRule {
+        private final int threshold;
+
+        DepthRule(int threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void evaluate(RowStats row, FindingSink sink) {
+            int depth = row.depth();
+            if (depth > threshold) {
+                sink.accept(new Finding.DeepReportingLine(row.id(), row.firstName(), row.lastName(), depth, threshold));
+            }
+        }
+    }
+
+    private static final class SpanOfControlRule implements OrgRule {
+        private final int minReports;
+        private final int maxReports;
+
+        SpanOfControlRule(int minReports, int maxReports) {
+            this.minReports = minReports;
+            this.maxReports = maxReports;
+        }
+
+        @Override
+        public void evaluate(RowStats row, FindingSink sink) {
+            int reports = row.reportCount;
+            if (reports == 0) return;
+            if (reports > maxReports) {
+                sink.accept(violation("span-of-control", row, "direct reports", reports, maxReports, true));
+            } else if (reports < minReports) {
+                sink.accept(violation("span-of-control", row, "direct reports", reports, minReports, false));
+            }
+        }
+    }
+
+    private static final class SkipLevelRatioRule implements OrgRule {
+        private final double minRatio;
+
+        SkipLevelRatioRule(double minRatio) {
+            this.minRatio = minRatio;
+        }
+
+        @Override
+        public void evaluate(RowStats row, FindingSink sink) {
+            double skip = row.skipManagerSalary();
+            if (Double.isNaN(skip)) return;
+            double ratio = skip / row.salary();
+            if (ratio < minRatio) {
+                sink.accept(violation("skip-level-ratio", row, "a skip-level salary ratio of", ratio, minRatio, false));
+            }
+        }
+    }
+
+    private static final class PayCompressionRule implements OrgRule {
+        private final double minSpread;
+
+        PayCompressionRule(double minSpread) {
+            this.minSpread = minSpread;
+        }
+
+        @Override
+        public void evaluate(RowStats row, FindingSink sink) {
+            if (row.reportCount < 2) return;
+            double spread = row.reportMax / row.reportMin;
+            if (spread < minSpread) {
+                sink.accept(violation("pay-compression", row, "a direct-report salary spread of", spread, minSpread, false));
+            }
+        }
+    }
+
+    private static Finding violation(String rule, RowStats row, String measure, double value, double limit, boolean above) {
+        return new Finding.RuleViolation(rule, row.id(), row.firstName(), row.lastName(), measure, value, limit, above);
+    }
+}
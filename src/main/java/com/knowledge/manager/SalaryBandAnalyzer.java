@@ -0,0 +1,159 @@
+package com.knowledge.manager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Direct-report salary band check (1.2x to 1.5x of the average report salary) over an {@link EmployeeTable}.
+ * <p>
+ * Managers are sorted by id once and the sorted list is cut into contiguous slices. With a parallelism
+ * above 1 the slices run as fork-join tasks; each task aggregates count/sum/min/max over the reports of its
+ * managers and collects findings for its own slice. Slices are drained into the sink in order, so the output
+ * is sorted by manager id and identical for every parallelism.
+ * <p>
+ * Given a {@link BandTopK.Selection}, the same loop also offers every finding to a per-slice pair of top-k heaps,
+ * which are merged into the selection as the slices are drained.
+ */
+public final class SalaryBandAnalyzer {
+
+    static final double MIN_FACTOR = 1.2;
+    static final double MAX_FACTOR = 1.5;
+    private static final int MIN_SLICE = 1024;
+
+    private SalaryBandAnalyzer() {
+    }
+
+    /**
+     * Runs the band check with the given parallelism; 1 runs on the calling thread.
+     * Findings reach the sink on the calling thread, sorted by manager id. At most a few slices per worker
+     * are buffered at any time, so the full list of findings is never held.
+     */
+    public static void analyze(EmployeeTable table, StructureValidator structure, int parallelism, FindingSink sink) {
+        analyze(table, structure, parallelism, sink, null);
+    }
+
+    /**
+     * Like {@link #analyze(EmployeeTable, StructureValidator, int, FindingSink)}, also collecting the managers
+     * furthest outside the band into {@code top} when it is not null.
+     */
+    static void analyze(EmployeeTable table, StructureValidator structure, int parallelism, FindingSink sink,
+                        BandTopK.Selection top) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        int[] managers = managersById(table, structure, parallelism > 1);
+        if (parallelism == 1 || managers.length <= MIN_SLICE) {
+            evaluate(table, managers, 0, managers.length, sink, top);
+            return;
+        }
+        int slice = Math.max(MIN_SLICE, managers.length / (parallelism * 8));
+        int window = parallelism * 4;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ArrayDeque<ForkJoinTask<Slice>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            while (next < managers.length || !inFlight.isEmpty()) {
+                while (next < managers.length && inFlight.size() < window) {
+                    int from = next;
+                    int to = Math.min(managers.length, from + slice);
+                    inFlight.add(pool.submit(() -> {
+                        Slice result = new Slice(top == null ? null : top.newSlice());
+                        evaluate(table, managers, from, to, result.findings::add, result.top);
+                        return result;
+                    }));
+                    next = to;
+                }
+                Slice done = inFlight.poll().join();
+                for (Finding finding : done.findings) sink.accept(finding);
+                if (top != null) top.addAll(done.top);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static final class Slice {
+        final List<Finding> findings = new ArrayList<>();
+        final BandTopK.Selection top;
+
+        Slice(BandTopK.Selection top) {
+            this.top = top;
+        }
+    }
+
+    /**
+     * Rows of managers that get a band check (have reports and are not the CEO), sorted by id.
+     */
+    static int[] managersById(EmployeeTable table, StructureValidator structure, boolean parallelSort) {
+        long[] keys = new long[table.size];
+        int count = 0;
+        for (int r = 0; r < table.size; r++) {
+            if (table.reportCount(r) > 0 && !structure.isCEO(r)) {
+                keys[count++] = ((long) table.ids[r] << 32) | r;
+            }
+        }
+        keys = Arrays.copyOf(keys, count);
+        if (parallelSort) Arrays.parallelSort(keys);
+        else Arrays.sort(keys);
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) rows[i] = (int) keys[i];
+        return rows;
+    }
+
+    static void evaluate(EmployeeTable table, int[] managers, int from, int to, FindingSink sink) {
+        evaluate(table, managers, from, to, sink, null);
+    }
+
+    static void evaluate(EmployeeTable table, int[] managers, int from, int to, FindingSink sink,
+                         BandTopK.Selection top) {
+        for (int i = from; i < to; i++) {
+            int m = managers[i];
+            int begin = table.childOffsets[m];
+            int end = table.childOffsets[m + 1];
+            double sum = 0.0;
+            double minSalary = Double.MAX_VALUE;
+            double maxSalary = -Double.MAX_VALUE;
+            for (int c = begin; c < end; c++) {
+                double salary = table.salaries[table.childIdx[c]];
+                sum += salary;
+                if (salary < minSalary) minSalary = salary;
+                if (salary > maxSalary) maxSalary = salary;
+            }
+            Finding finding = band(table.ids[m], table.firstName(m), table.lastName(m), table.salaries[m],
+                    end - begin, sum, minSalary, maxSalary);
+            if (finding == null) continue;
+            sink.accept(finding);
+            if (top != null) top.offer((Finding.SalaryBand) finding, m);
+        }
+    }
+
+    /**
+     * Band finding of a manager from the count, sum, min and max of their direct reports' salaries, or null when
+     * the salary is within the band.
+     */
+    static Finding band(int id, String firstName, String lastName, double managerSalary,
+                        int reports, double sum, double minSalary, double maxSalary) {
+        return band(id, firstName, lastName, managerSalary, reports, sum, minSalary, maxSalary, MIN_FACTOR, MAX_FACTOR);
+    }
+
+    /**
+     * Like {@link #band(int, String, String, double, int, double, double, double)} for a band of
+     * {@code minFactor} to {@code maxFactor} times the average report salary, e.g. from a {@link RuleSet}.
+     */
+    static Finding band(int id, String firstName, String lastName, double managerSalary, int reports, double sum,
+                        double minSalary, double maxSalary, double minFactor, double maxFactor) {
+        double avgSubordinateSalary = sum / reports;
+        double minShouldEarn = avgSubordinateSalary * minFactor;
+        double maxShouldEarn = avgSubordinateSalary * maxFactor;
+        if (managerSalary < minShouldEarn) {
+            return new Finding.SalaryBand(Finding.Kind.UNDERPAID, id, firstName, lastName,
+                    managerSalary, minShouldEarn, avgSubordinateSalary, reports, minSalary, maxSalary);
+        } else if (managerSalary > maxShouldEarn) {
+            return new Finding.SalaryBand(Finding.Kind.OVERPAID, id, firstName, lastName,
+                    managerSalary, maxShouldEarn, avgSubordinateSalary, reports, minSalary, maxSalary);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,94 @@
+package com.knowledge.manager;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch for salaries with a fixed relative accuracy.
+ * <p>
+ * Positive values fall into logarithmic buckets {@code ceil(log(x) / log(gamma))} with
+ * {@code gamma = (1 + a) / (1 - a)}, so every reported quantile is within a relative error {@code a} of a
+ * salary at that rank. Two sketches with the same accuracy merge by adding bucket counts, which is what lets
+ * {@link SubtreeAggregates} build the sketch of a manager from the sketches below it.
+ */
+public final class SalarySketch {
+
+    private final double relativeAccuracy;
+    private final double logGamma;
+    private long zeroCount;
+    private long count;
+    // counts[i] holds bucket minKey + i.
+    private long[] counts = new long[0];
+    private int minKey;
+
+    public SalarySketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("relativeAccuracy must be in (0, 1): " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+    }
+
+    public void add(double salary) {
+        count++;
+        if (salary <= 0) {
+            zeroCount++;
+            return;
+        }
+        int key = (int) Math.ceil(Math.log(salary) / logGamma);
+        ensureRange(key, key);
+        counts[key - minKey]++;
+    }
+
+    public void merge(SalarySketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        count += other.count;
+        zeroCount += other.zeroCount;
+        if (other.counts.length == 0) return;
+        ensureRange(other.minKey, other.minKey + other.counts.length - 1);
+        int shift = other.minKey - minKey;
+        for (int i = 0; i < other.counts.length; i++) counts[shift + i] += other.counts[i];
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Salary at quantile {@code q} (0 = lowest, 1 = highest), or NaN for an empty sketch.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("q must be in [0, 1]: " + q);
+        if (count == 0) return Double.NaN;
+        long rank = (long) (q * (count - 1));
+        if (rank < zeroCount) return 0;
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) return 2 * Math.exp((minKey + i) * logGamma) / (1 + Math.exp(logGamma));
+        }
+        return 2 * Math.exp((minKey + counts.length - 1) * logGamma) / (1 + Math.exp(logGamma));
+    }
+
+    private void ensureRange(int low, int high) {
+        if (counts.length == 0) {
+            minKey = low;
+            counts = new long[high - low + 1];
+            return;
+        }
+        int maxKey = minKey + counts.length - 1;
+        if (low >= minKey && high <= maxKey) return;
+        int newMin = Math.min(low, minKey);
+        int newMax = Math.max(high, maxKey);
+        long[] grown = new long[newMax - newMin + 1];
+        System.arraycopy(counts, 0, grown, minKey - newMin, counts.length);
+        counts = grown;
+        minKey = newMin;
+    }
+
+    @Override
+    public String toString() {
+        return "SalarySketch(count=" + count + ", buckets=" + Arrays.stream(counts).filter(c -> c > 0).count() + ")";
+    }
+}
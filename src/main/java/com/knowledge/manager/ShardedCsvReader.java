@@ -0,0 +1,166 @@
+package com.knowledge.manager;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads an org split over several CSV files ("shards"), e.g. one export per regional HR system.
+ * <p>
+ * Every shard is parsed by its own {@link EmployeeCsvReader} on a worker thread into a columnar
+ * {@link RowBuffer}. The buffers are replayed into the handler in shard order as they complete, so the handler
+ * sees the same rows in the same order as with the shards concatenated, and a manager in one shard is found for
+ * reports in another once the table is built. A buffer is dropped once replayed, and a shard is only started
+ * while fewer shards than workers are being parsed or waiting for replay, so at most one buffer per worker is
+ * held next to what the handler builds. Ids that appear in more than one shard are reported as
+ * {@link Finding.DuplicateId}; as with duplicates inside one file, the row read last wins.
+ */
+public class ShardedCsvReader {
+
+    private final EmployeeRowHandler handler;
+    private final int parallelism;
+    private final List<Finding.DuplicateId> duplicates = new ArrayList<>();
+    private long rowsRead;
+    private long rowsSkipped;
+
+    public ShardedCsvReader(EmployeeRowHandler handler) {
+        this(handler, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedCsvReader(EmployeeRowHandler handler, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        this.handler = handler;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Shards named by {@code spec}: every {@code *.csv} file of a directory, the files of a directory matching a
+     * glob in the last path element (e.g. {@code exports/emea-*.csv}), or a single file. Sorted by file name.
+     */
+    public static List<Path> resolve(String spec) throws IOException {
+        Path path = Paths.get(spec);
+        Path dir;
+        String glob;
+        if (Files.isDirectory(path)) {
+            dir = path;
+            glob = "*.csv";
+        } else if (isGlob(path.getFileName() == null ? "" : path.getFileName().toString())) {
+            dir = path.getParent() == null ? Paths.get(".") : path.getParent();
+            glob = path.getFileName().toString();
+        } else {
+            return Collections.singletonList(path);
+        }
+        List<Path> shards = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, glob)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file)) shards.add(file);
+            }
+        }
+        Collections.sort(shards);
+        return shards;
+    }
+
+    /**
+     * True when {@code spec} names more than one file: a directory or a glob.
+     */
+    public static boolean isSharded(String spec) {
+        Path path = Paths.get(spec);
+        return Files.isDirectory(path) || (path.getFileName() != null && isGlob(path.getFileName().toString()));
+    }
+
+    private static boolean isGlob(String name) {
+        return name.indexOf('*') >= 0 || name.indexOf('?') >= 0 || name.indexOf('[') >= 0 || name.indexOf('{') >= 0;
+    }
+
+    public void read(List<Path> shards) throws IOException {
+        int workers = Math.max(1, Math.min(parallelism, shards.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            ArrayDeque<Future<Parsed>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            // id -> index of the shard it was last seen in
+            IntIntHashMap shardOf = new IntIntHashMap(1024);
+            for (int s = 0; s < shards.size(); s++) {
+                while (next < shards.size() && inFlight.size() < workers) {
+                    Path shard = shards.get(next++);
+                    inFlight.add(pool.submit(() -> parse(shard)));
+                }
+                Parsed parsed = join(inFlight.poll(), shards.get(s));
+                rowsRead += parsed.rowsRead;
+                rowsSkipped += parsed.rowsSkipped;
+                int shard = s;
+                parsed.rows.replay((id, firstName, lastName, salary, managerId) -> {
+                    int previous = shardOf.put(id, shard);
+                    if (previous != IntIntHashMap.MISSING && previous != shard) {
+                        duplicates.add(new Finding.DuplicateId(id, shards.get(previous).getFileName().toString(),
+                                shards.get(shard).getFileName().toString()));
+                    }
+                    handler.onRow(id, firstName, lastName, salary, managerId);
+                });
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Rows of one shard and its counts; nothing else of the reader is kept.
+     */
+    private static final class Parsed {
+        final RowBuffer rows;
+        final long rowsRead;
+        final long rowsSkipped;
+
+        Parsed(RowBuffer rows, long rowsRead, long rowsSkipped) {
+            this.rows = rows;
+            this.rowsRead = rowsRead;
+            this.rowsSkipped = rowsSkipped;
+        }
+    }
+
+    private static Parsed parse(Path shard) throws IOException {
+        RowBuffer rows = new RowBuffer();
+        EmployeeCsvReader reader = new EmployeeCsvReader(rows);
+        reader.read(shard);
+        return new Parsed(rows, reader.getRowsRead(), reader.getRowsSkipped());
+    }
+
+    private static Parsed join(Future<Parsed> task, Path shard) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + shard, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw new IOException(shard + ": " + cause.getMessage(), cause);
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException("Error reading " + shard, cause);
+        }
+    }
+
+    /**
+     * Ids found in more than one shard, in the order the later copy was read.
+     */
+    public List<Finding.DuplicateId> getDuplicates() {
+        return duplicates;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+}
@@ -0,0 +1,136 @@
+package com.knowledge.manager;
+
+import java.util.Arrays;
+
+/**
+ * Structural checks over an {@link EmployeeTable}, done once up front instead of per employee or per manager:
+ * multiple managers, circular reporting, number of CEOs and the two-person company case.
+ * <p>
+ * Cycle members are found with three-colour marking over the manager index: a walk colours rows grey while
+ * it climbs, and when it stops every grey row turns black, either "reaches a top" or "runs into a loop".
+ * A walk stops at the first black row, so every row is climbed over once and the whole pass is O(N).
+ */
+public final class StructureValidator {
+
+    private static final byte WHITE = 0;
+    private static final byte GREY = 1;
+    private static final byte BLACK = 2;
+    private static final byte BLACK_CYCLE = 3;
+
+    private final EmployeeTable table;
+    private final byte[] colour;
+    private final int rootCount;
+    private final int[] multiManagerIds;
+
+    private StructureValidator(EmployeeTable table, byte[] colour, int rootCount, int[] multiManagerIds) {
+        this.table = table;
+        this.colour = colour;
+        this.rootCount = rootCount;
+        this.multiManagerIds = multiManagerIds;
+    }
+
+    public static StructureValidator validate(EmployeeTable table) {
+        int n = table.size;
+        byte[] colour = new byte[n];
+        int[] path = new int[16];
+        int rootCount = 0;
+        IntIntHashMap seenAsReport = new IntIntHashMap(n);
+        int[] multi = new int[4];
+        int multiCount = 0;
+
+        for (int r = 0; r < n; r++) {
+            if (table.managerIdx[r] == EmployeeTable.NO_MANAGER) {
+                if (table.isActive(r)) rootCount++;
+            } else {
+                // 0 = listed once, 1 = listed again and already warned about
+                int previous = seenAsReport.put(table.ids[r], 0);
+                if (previous != IntIntHashMap.MISSING) {
+                    seenAsReport.put(table.ids[r], 1);
+                    if (previous == 0) {
+                        if (multiCount == multi.length) multi = Arrays.copyOf(multi, multiCount * 2);
+                        multi[multiCount++] = table.ids[r];
+                    }
+                }
+            }
+
+            if (colour[r] != WHITE) continue;
+            int depth = 0;
+            int current = r;
+            byte outcome;
+            while (true) {
+                if (current < 0) {
+                    outcome = BLACK;
+                    break;
+                }
+                byte c = colour[current];
+                if (c == GREY) {
+                    outcome = BLACK_CYCLE;
+                    break;
+                }
+                if (c != WHITE) {
+                    outcome = c;
+                    break;
+                }
+                colour[current] = GREY;
+                if (depth == path.length) path = Arrays.copyOf(path, depth * 2);
+                path[depth++] = current;
+                current = table.managerIdx[current];
+            }
+            while (depth > 0) colour[path[--depth]] = outcome;
+        }
+        return new StructureValidator(table, colour, rootCount, Arrays.copyOf(multi, multiCount));
+    }
+
+    /**
+     * True when the chain of managers above the row runs into a loop.
+     */
+    public boolean reachesCycle(int row) {
+        return colour[row] == BLACK_CYCLE;
+    }
+
+    /**
+     * Number of employees without a manager.
+     */
+    public int rootCount() {
+        return rootCount;
+    }
+
+    // CEO: no manager, and the only such employee in the company
+    public boolean isCEO(int row) {
+        return table.managerIdx[row] == EmployeeTable.NO_MANAGER && rootCount == 1;
+    }
+
+    /**
+     * Ids listed as a report more than once, in the order the second listing was seen.
+     */
+    public int[] multipleManagerIds() {
+        return multiManagerIds.clone();
+    }
+
+    /**
+     * Emits the structural warnings in the same order and wording as {@link ManagerSalaryAnalyzer#analyzeManagerSalary}.
+     */
+    public void report(FindingSink sink) {
+        // 1. Detect employees with multiple managers
+        for (int id : multiManagerIds) sink.accept(new Finding.MultipleManagers(id));
+
+        // 2. Detect cycles (circular reporting)
+        for (int r = 0; r < table.size; r++) {
+            if (reachesCycle(r) && table.isActive(r)) {
+                sink.accept(new Finding.CircularReporting(table.ids[r], table.firstName(r), table.lastName(r)));
+            }
+        }
+
+        // 3. Detect Multi CEO
+        if (rootCount > 1) sink.accept(new Finding.MultipleCeo(rootCount));
+
+        // 4. Detect Single reportee to CEO
+        if (table.idToRow.size() == 2) {
+            for (int r = 0; r < table.size; r++) {
+                if (table.isActive(r) && !isCEO(r)) {
+                    sink.accept(new Finding.NotCeo(table.ids[r], table.firstName(r), table.lastName(r)));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.knowledge.manager;
+
+import java.util.Arrays;
+
+/**
+ * Count, sum, min, max and sum of squares of the salaries of everyone below each employee (direct and indirect
+ * reports, not the employee themselves), computed once in O(N) and queried in O(1).
+ * <p>
+ * The pass runs bottom-up over {@link DepthIndex} order, deepest rows first, folding each row and its own
+ * aggregate into its manager. Rows in or below a circular reporting structure are not in that order and
+ * have empty aggregates.
+ * <p>
+ * Optionally, managers with at least {@code sketchMinHeadcount} people below them also get a
+ * {@link SalarySketch} for percentiles. Each salary is added to the sketch of its nearest sketched manager and
+ * sketches are then merged upwards, so the cost is O(N) plus one merge per sketched manager.
+ */
+public final class SubtreeAggregates {
+
+    private final int[] count;
+    private final double[] sum;
+    private final double[] min;
+    private final double[] max;
+    private final double[] sumSquares;
+    private final SalarySketch[] sketches;
+
+    private SubtreeAggregates(int[] count, double[] sum, double[] min, double[] max, double[] sumSquares,
+                              SalarySketch[] sketches) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.sumSquares = sumSquares;
+        this.sketches = sketches;
+    }
+
+    public static SubtreeAggregates build(EmployeeTable table, DepthIndex depths) {
+        return build(table, depths, Integer.MAX_VALUE, 0.01);
+    }
+
+    /**
+     * @param sketchMinHeadcount Smallest headcount below a manager that gets a quantile sketch.
+     * @param relativeAccuracy   Relative accuracy of the sketches, e.g. 0.01.
+     */
+    public static SubtreeAggregates build(EmployeeTable table, DepthIndex depths, int sketchMinHeadcount, double relativeAccuracy) {
+        int n = table.size;
+        int[] count = new int[n];
+        double[] sum = new double[n];
+        double[] min = new double[n];
+        double[] max = new double[n];
+        double[] sumSquares = new double[n];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+
+        int[] order = depths.rowsByDepth;
+        for (int i = order.length - 1; i >= 0; i--) {
+            int r = order[i];
+            int m = table.managerIdx[r];
+            if (m < 0) continue;
+            double salary = table.salaries[r];
+            count[m] += count[r] + 1;
+            sum[m] += sum[r] + salary;
+            sumSquares[m] += sumSquares[r] + salary * salary;
+            min[m] = Math.min(min[m], Math.min(min[r], salary));
+            max[m] = Math.max(max[m], Math.max(max[r], salary));
+        }
+
+        SalarySketch[] sketches = null;
+        if (sketchMinHeadcount < Integer.MAX_VALUE) {
+            sketches = new SalarySketch[n];
+            // Nearest sketched manager of every row, top-down; -1 when there is none.
+            int[] sketchedAbove = new int[n];
+            for (int r : order) {
+                int m = table.managerIdx[r];
+                sketchedAbove[r] = m < 0 ? -1 : sketches[m] != null ? m : sketchedAbove[m];
+                if (count[r] >= sketchMinHeadcount) sketches[r] = new SalarySketch(relativeAccuracy);
+            }
+            for (int r : order) {
+                if (sketchedAbove[r] >= 0) sketches[sketchedAbove[r]].add(table.salaries[r]);
+            }
+            // Deepest first, so a sketch is complete before it is merged into the one above.
+            for (int i = order.length - 1; i >= 0; i--) {
+                int r = order[i];
+                if (sketches[r] != null && sketchedAbove[r] >= 0) sketches[sketchedAbove[r]].merge(sketches[r]);
+            }
+        }
+        return new SubtreeAggregates(count, sum, min, max, sumSquares, sketches);
+    }
+
+    /**
+     * Number of people below the employee.
+     */
+    public int headcount(int row) {
+        return count[row];
+    }
+
+    /**
+     * Total salary of everyone below the employee.
+     */
+    public double totalSalary(int row) {
+        return sum[row];
+    }
+
+    /**
+     * Lowest salary below the employee, NaN without reports.
+     */
+    public double minSalary(int row) {
+        return count[row] == 0 ? Double.NaN : min[row];
+    }
+
+    /**
+     * Highest salary below the employee, NaN without reports.
+     */
+    public double maxSalary(int row) {
+        return count[row] == 0 ? Double.NaN : max[row];
+    }
+
+    public double averageSalary(int row) {
+        return count[row] == 0 ? Double.NaN : sum[row] / count[row];
+    }
+
+    public double sumOfSquares(int row) {
+        return sumSquares[row];
+    }
+
+    /**
+     * Population standard deviation of the salaries below the employee, NaN without reports.
+     */
+    public double salaryStdDev(int row) {
+        if (count[row] == 0) return Double.NaN;
+        double mean = sum[row] / count[row];
+        return Math.sqrt(Math.max(0, sumSquares[row] / count[row] - mean * mean));
+    }
+
+    /**
+     * Quantile sketch of the salaries below the employee, or null if none was built for this row.
+     */
+    public SalarySketch sketch(int row) {
+        return sketches == null ? null : sketches[row];
+    }
+
+    /**
+     * Approximate salary at quantile {@code q} below the employee, NaN without a sketch.
+     */
+    public double quantile(int row, double q) {
+        SalarySketch sketch = sketch(row);
+        return sketch == null ? Double.NaN : sketch.quantile(q);
+    }
+}
@@ -0,0 +1,114 @@
+package com.knowledge.manager;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the {@code k} highest scoring rows seen so far in a binary min-heap over primitive arrays, so the
+ * weakest kept entry is at the root and is replaced in O(log k) when a better one arrives.
+ * Equal scores are ranked by employee id, lowest first, which makes the selection independent of the order
+ * the rows were offered in and of how they were split over threads.
+ */
+final class TopKHeap {
+
+    private final int k;
+    // Grown on demand up to k, so a large k costs nothing until that many rows qualify.
+    private double[] scores;
+    private int[] ids;
+    private int[] rows;
+    private int size;
+
+    TopKHeap(int k) {
+        if (k < 1) throw new IllegalArgumentException("k must be positive: " + k);
+        this.k = k;
+        int capacity = Math.min(k, 64);
+        scores = new double[capacity];
+        ids = new int[capacity];
+        rows = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void offer(double score, int id, int row) {
+        if (size < k) {
+            if (size == scores.length) grow();
+            int i = size++;
+            set(i, score, id, row);
+            siftUp(i);
+        } else if (better(score, id, scores[0], ids[0])) {
+            set(0, score, id, row);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Offers every entry of {@code other}, e.g. the heap of another worker.
+     */
+    void addAll(TopKHeap other) {
+        for (int i = 0; i < other.size; i++) offer(other.scores[i], other.ids[i], other.rows[i]);
+    }
+
+    /**
+     * The kept rows, best first. Empties the heap.
+     */
+    int[] drainBestFirst() {
+        int[] best = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            best[i] = rows[0];
+            size--;
+            if (size > 0) {
+                set(0, scores[size], ids[size], rows[size]);
+                siftDown(0);
+            }
+        }
+        return best;
+    }
+
+    private static boolean better(double score, int id, double otherScore, int otherId) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private void set(int i, double score, int id, int row) {
+        scores[i] = score;
+        ids[i] = id;
+        rows[i] = row;
+    }
+
+    private void swap(int i, int j) {
+        double score = scores[i];
+        int id = ids[i];
+        int row = rows[i];
+        set(i, scores[j], ids[j], rows[j]);
+        set(j, score, id, row);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!better(scores[parent], ids[parent], scores[i], ids[i])) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int weakest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && better(scores[weakest], ids[weakest], scores[left], ids[left])) weakest = left;
+            if (right < size && better(scores[weakest], ids[weakest], scores[right], ids[right])) weakest = right;
+            if (weakest == i) return;
+            swap(i, weakest);
+            i = weakest;
+        }
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(k, scores.length * 2L);
+        scores = Arrays.copyOf(scores, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        rows = Arrays.copyOf(rows, capacity);
+    }
+}
@@ -0,0 +1,78 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AncestorIndexTest {
+
+    // Chain of command by walking parents: the row itself first, then its managers up to the top.
+    private static List<Integer> walk(EmployeeTable table, int row) {
+        List<Integer> chain = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (int r = row; r >= 0 && seen.add(r); r = table.managerIdx[r]) chain.add(r);
+        return chain;
+    }
+
+    @Test
+    void testMatchesWalkingTheChain() {
+        EmployeeTable table = new OrgGenerator(3000, 11).fanOut(1, 4).orphanRate(0.01).extraRootRate(0.002)
+                .cycleRate(0.002).toTable();
+        AncestorIndex index = AncestorIndex.build(table);
+        DepthIndex depths = DepthIndex.build(table);
+        Random random = new Random(3);
+
+        for (int r = 0; r < table.size(); r++) {
+            assertEquals(depths.depth(r), index.managersToCEO(r), "row " + r);
+            if (depths.depth(r) == DepthIndex.CYCLE) continue;
+            List<Integer> chain = walk(table, r);
+            for (int k = 0; k < chain.size(); k++) assertEquals((int) chain.get(k), index.managerAbove(r, k));
+            assertEquals(AncestorIndex.NONE, index.managerAbove(r, chain.size()));
+        }
+        for (int i = 0; i < 20000; i++) {
+            int a = random.nextInt(table.size());
+            int b = random.nextInt(table.size());
+            if (i % 2 == 0) b = walk(table, a).get(random.nextInt(walk(table, a).size()));
+            List<Integer> chainA = walk(table, a);
+            List<Integer> chainB = walk(table, b);
+            boolean cyclic = depths.depth(a) == DepthIndex.CYCLE || depths.depth(b) == DepthIndex.CYCLE;
+
+            int expected = AncestorIndex.NONE;
+            if (!cyclic) {
+                for (int r : chainA) {
+                    if (chainB.contains(r)) {
+                        expected = r;
+                        break;
+                    }
+                }
+            }
+            assertEquals(expected, index.lowestCommonManager(a, b), a + " and " + b);
+            assertEquals(!cyclic && a != b && chainA.contains(b), index.isManagerOf(b, a), b + " above " + a);
+        }
+    }
+
+    @Test
+    void testIdQueriesNextToCountManagersToCEO() {
+        List<Employee> employees = EmployeeTableTest.buildSampleEmployees();
+        Map<Integer, Employee> idToEmployee = ManagerSalaryAnalyzer.buildIdToEmployee(employees);
+        AncestorIndex index = AncestorIndex.build(EmployeeTable.of(employees));
+
+        for (Employee e : employees) {
+            assertEquals(ManagerSalaryAnalyzer.countManagersToCEO(e, idToEmployee),
+                    ManagerSalaryAnalyzer.countManagersToCEO(e.id, index), "id " + e.id);
+        }
+        assertEquals(Integer.valueOf(4), ManagerSalaryAnalyzer.lowestCommonManager(16, 13, index));
+        assertEquals(Integer.valueOf(6), ManagerSalaryAnalyzer.lowestCommonManager(6, 11, index));
+        assertNull(ManagerSalaryAnalyzer.lowestCommonManager(12, 19, index));
+        assertNull(ManagerSalaryAnalyzer.lowestCommonManager(18, 2, index));
+        assertTrue(ManagerSalaryAnalyzer.isInChainOfCommand(1, 17, index));
+        assertFalse(ManagerSalaryAnalyzer.isInChainOfCommand(17, 1, index));
+        assertFalse(ManagerSalaryAnalyzer.isInChainOfCommand(3, 3, index));
+        assertEquals(Integer.valueOf(8), ManagerSalaryAnalyzer.managerAbove(10, 1, index));
+        assertEquals(Integer.valueOf(1), ManagerSalaryAnalyzer.managerAbove(10, 5, index));
+        assertNull(ManagerSalaryAnalyzer.managerAbove(10, 6, index));
+        assertThrows(IllegalArgumentException.class, () -> ManagerSalaryAnalyzer.managerAbove(999, 1, index));
+    }
+}
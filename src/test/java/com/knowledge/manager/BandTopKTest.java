@@ -0,0 +1,87 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BandTopKTest {
+
+    private static double percent(Finding.SalaryBand f) {
+        return ManagerSalaryAnalyzer.percentDifference(f.getSalary(), f.getAverageReportSalary());
+    }
+
+    @Test
+    void testMatchesFullSort() {
+        EmployeeTable table = new OrgGenerator(60000, 4).underpaidRate(0.03).overpaidRate(0.03).toTable();
+        StructureValidator structure = StructureValidator.validate(table);
+        CollectingFindingSink all = new CollectingFindingSink();
+        SalaryBandAnalyzer.analyze(table, structure, 1, all);
+        List<Finding.SalaryBand> bands = all.getFindings().stream().map(f -> (Finding.SalaryBand) f).collect(Collectors.toList());
+
+        List<Finding.SalaryBand> underpaid = bands.stream().filter(f -> f.getKind() == Finding.Kind.UNDERPAID)
+                .sorted(Comparator.comparingDouble(Finding.SalaryBand::getDifference).reversed()
+                        .thenComparingInt(Finding.SalaryBand::getManagerId))
+                .limit(100).collect(Collectors.toList());
+        List<Finding.SalaryBand> overpaid = bands.stream().filter(f -> f.getKind() == Finding.Kind.OVERPAID)
+                .sorted(Comparator.comparingDouble(BandTopKTest::percent).reversed()
+                        .thenComparingInt(Finding.SalaryBand::getManagerId))
+                .limit(100).collect(Collectors.toList());
+        assertEquals(100, underpaid.size());
+        assertEquals(100, overpaid.size());
+
+        for (int parallelism : new int[]{1, 4}) {
+            BandTopK.Result result = new BandTopK(100).select(table, structure, parallelism);
+            assertEquals(underpaid, result.getUnderpaid());
+            assertEquals(overpaid, result.getOverpaid());
+
+            // Same selection while the full list of findings streams out of the same pass
+            BandTopK.Selection selection = new BandTopK(100).newSelection();
+            CollectingFindingSink report = new CollectingFindingSink();
+            SalaryBandAnalyzer.analyze(table, structure, parallelism, report, selection);
+            assertEquals(all.getFindings(), report.getFindings());
+            BandTopK.Result fused = selection.result(table);
+            assertEquals(underpaid, fused.getUnderpaid());
+            assertEquals(overpaid, fused.getOverpaid());
+        }
+    }
+
+    @Test
+    void testThresholds() {
+        EmployeeTable table = EmployeeTable.of(EmployeeTableTest.buildSampleEmployees());
+        StructureValidator structure = StructureValidator.validate(table);
+
+        BandTopK.Result all = new BandTopK(1000).select(table, structure, 1);
+        assertFalse(all.getUnderpaid().isEmpty());
+        assertFalse(all.getOverpaid().isEmpty());
+
+        double gap = all.getUnderpaid().get(0).getDifference();
+        double pct = percent(all.getOverpaid().get(0));
+        BandTopK.Result worst = new BandTopK(1000).minUnderpaidGap(gap).minOverpaidPercent(pct).select(table, structure, 1);
+        assertEquals(all.getUnderpaid().subList(0, 1), worst.getUnderpaid());
+        assertEquals(all.getOverpaid().subList(0, 1), worst.getOverpaid());
+    }
+
+    @Test
+    void testHeapKeepsBestWithIdTieBreak() {
+        TopKHeap heap = new TopKHeap(3);
+        double[] scores = {5, 1, 9, 5, 7, 5, 2};
+        int[] ids = {40, 10, 30, 20, 50, 60, 70};
+        for (int i = 0; i < scores.length; i++) heap.offer(scores[i], ids[i], i);
+        // 9 (id 30), 7 (id 50), then the lowest id among the 5s (id 20)
+        assertArrayEquals(new int[]{2, 4, 3}, heap.drainBestFirst());
+        assertEquals(0, heap.size());
+
+        TopKHeap left = new TopKHeap(200);
+        TopKHeap right = new TopKHeap(200);
+        for (int i = 0; i < 500; i++) (i % 2 == 0 ? left : right).offer(i % 97, i, i);
+        left.addAll(right);
+        int[] best = left.drainBestFirst();
+        assertEquals(200, best.length);
+        assertEquals(Arrays.asList(96, 193, 290, 387, 484), Arrays.stream(best).limit(5).boxed().collect(Collectors.toList()));
+    }
+}
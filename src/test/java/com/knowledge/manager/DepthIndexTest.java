@@ -0,0 +1,81 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepthIndexTest {
+
+    private static List<Employee> randomOrg(int size, long seed) {
+        Random random = new Random(seed);
+        List<Employee> employees = new ArrayList<>();
+        employees.add(new Employee(1, "Ceo", "Top", 500000, null));
+        for (int id = 2; id <= size; id++) {
+            // Mostly deep chains, some missing managers and a few extra roots.
+            int roll = random.nextInt(100);
+            Integer managerId = roll < 2 ? null : roll < 5 ? size + id : Math.max(1, id - 1 - random.nextInt(3));
+            employees.add(new Employee(id, "F" + id, "L" + id, 1000 + id, managerId));
+        }
+        return employees;
+    }
+
+    @Test
+    void testDepthsMatchCountManagersToCEO() {
+        List<Employee> employees = randomOrg(5000, 7);
+        Map<Integer, Employee> idToEmployee = ManagerSalaryAnalyzer.buildIdToEmployee(employees);
+        EmployeeTable table = EmployeeTable.of(employees);
+        DepthIndex index = DepthIndex.build(table);
+        Map<Integer, Integer> mapIndex = ManagerSalaryAnalyzer.buildDepthIndex(idToEmployee);
+
+        for (int r = 0; r < table.size(); r++) {
+            int expected = ManagerSalaryAnalyzer.countManagersToCEO(employees.get(r), idToEmployee);
+            assertEquals(expected, index.depth(r), "row " + r);
+            assertEquals(expected, (int) mapIndex.get(employees.get(r).id), "id " + employees.get(r).id);
+            assertEquals(expected, ManagerSalaryAnalyzer.lookupManagersToCEO(employees.get(r), mapIndex));
+        }
+    }
+
+    @Test
+    void testThresholdQueries() {
+        List<Employee> employees = EmployeeTableTest.buildSampleEmployees();
+        EmployeeTable table = EmployeeTable.of(employees);
+        DepthIndex index = DepthIndex.build(table);
+
+        assertEquals(5, index.maxDepth());
+        int[] deep = index.rowsDeeperThan(4);
+        Set<Integer> deepIds = new HashSet<>();
+        for (int r : deep) deepIds.add(table.id(r));
+        assertEquals(new HashSet<>(Arrays.asList(10, 11, 12, 13)), deepIds);
+        assertEquals(4, index.countDeeperThan(4));
+        assertEquals(table.size(), index.countDeeperThan(-1));
+        assertEquals(0, index.countDeeperThan(5));
+        assertEquals(0, index.rowsDeeperThan(100).length);
+
+        int[] all = index.rowsDeeperThan(-1);
+        for (int i = 1; i < all.length; i++) {
+            assertTrue(index.depth(all[i - 1]) <= index.depth(all[i]), "sorted by depth");
+        }
+    }
+
+    @Test
+    void testCycleMembersAndTheirReportsHaveNoDepth() {
+        List<Employee> employees = Arrays.asList(
+                new Employee(1, "A", "Alpha", 10000, 3),
+                new Employee(2, "B", "Bravo", 9000, 1),
+                new Employee(3, "C", "Charlie", 8000, 2),
+                new Employee(4, "D", "Delta", 7000, 1),
+                new Employee(5, "E", "Echo", 7000, null));
+        EmployeeTable table = EmployeeTable.of(employees);
+        DepthIndex index = DepthIndex.build(table);
+        Map<Integer, Integer> mapIndex = ManagerSalaryAnalyzer.buildDepthIndex(ManagerSalaryAnalyzer.buildIdToEmployee(employees));
+
+        for (int r = 0; r < 4; r++) {
+            assertEquals(DepthIndex.CYCLE, index.depth(r));
+            assertEquals(DepthIndex.CYCLE, (int) mapIndex.get(table.id(r)));
+        }
+        assertEquals(0, index.depth(4));
+        assertEquals(1, index.countDeeperThan(-1));
+    }
+}
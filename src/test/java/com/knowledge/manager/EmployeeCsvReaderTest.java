@@ -0,0 +1,97 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeCsvReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private List<Employee> read(String csv, EmployeeCsvReader[] readerOut) throws Exception {
+        List<Employee> employees = new ArrayList<>();
+        EmployeeCsvReader reader = new EmployeeCsvReader((id, first, last, salary, managerId) ->
+                employees.add(new Employee(id, first, last, salary, managerId == EmployeeRowHandler.NO_MANAGER ? null : managerId)));
+        reader.read(new StringReader(csv));
+        if (readerOut != null) readerOut[0] = reader;
+        return employees;
+    }
+
+    @Test
+    void testParsesRowsLikeSplitBasedParser() throws Exception {
+        List<Employee> employees = read("Id,firstName,lastName,salary,managerId\r\n"
+                + "1,Alice,Smith,250000,\r\n"
+                + "2,Bob,Jones,1234.5,1,extra\r\n"
+                + "3,Carol,White,-0.25,1", null);
+
+        assertEquals(3, employees.size());
+        assertEquals(new Employee(1, "Alice", "Smith", 250000, null), employees.get(0));
+        assertEquals(new Employee(2, "Bob", "Jones", 1234.5, 1), employees.get(1));
+        assertEquals(new Employee(3, "Carol", "White", -0.25, 1), employees.get(2));
+    }
+
+    @Test
+    void testSkipsShortAndMalformedRows() throws Exception {
+        EmployeeCsvReader[] reader = new EmployeeCsvReader[1];
+        List<Employee> employees = read("header\n"
+                + "\n"
+                + "1,Alice,Smith,250000\n"
+                + "x,Bob,Jones,100,\n"
+                + "3,Carol,White,abc,\n"
+                + "4,Dan,Brown,1e3,\n", reader);
+
+        assertEquals(1, employees.size());
+        assertEquals(1000.0, employees.get(0).salary);
+        assertEquals(1, reader[0].getRowsRead());
+        assertEquals(4, reader[0].getRowsSkipped());
+    }
+
+    @Test
+    void testNumbersMatchJdkParsers() throws Exception {
+        String[] salaries = {"0", "007", ".5", "5.", "123456789.123456", "0.1", "99999.99", "1.7976931348623157E308", "-12.75"};
+        StringBuilder csv = new StringBuilder("header\n");
+        for (int i = 0; i < salaries.length; i++) {
+            csv.append(i).append(",A,B,").append(salaries[i]).append(",1\n");
+        }
+        List<Employee> employees = read(csv.toString(), null);
+
+        assertEquals(salaries.length, employees.size());
+        for (int i = 0; i < salaries.length; i++) {
+            assertEquals(Double.parseDouble(salaries[i]), employees.get(i).salary, "salary " + salaries[i]);
+        }
+    }
+
+    @Test
+    void testReadsLargeFileFromDiskWithoutLimit() throws Exception {
+        Path file = tempDir.resolve("large.csv");
+        int rows = 50_000;
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("Id,firstName,lastName,salary,managerId\n");
+            w.write("1,Ceo,Person,500000,\n");
+            for (int i = 2; i <= rows; i++) {
+                w.write(i + ",First" + i + ",Last" + i + "," + (1000 + i) + "," + (i / 2) + "\n");
+            }
+        }
+
+        List<Employee> employees = ManagerSalaryAnalyzer.readEmployeesFromCsv(file);
+
+        assertNotNull(employees);
+        assertEquals(rows, employees.size());
+        assertEquals(new Employee(rows, "First" + rows, "Last" + rows, 1000 + rows, rows / 2), employees.get(rows - 1));
+    }
+
+    @Test
+    void testMissingFileReturnsNull() {
+        assertNull(ManagerSalaryAnalyzer.readEmployeesFromCsv(tempDir.resolve("missing.csv")));
+    }
+}
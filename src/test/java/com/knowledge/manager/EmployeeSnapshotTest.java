@@ -0,0 +1,74 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSnapshotTest {
+
+    private static void assertSameTable(EmployeeTable expected, EmployeeTable actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int r = 0; r < expected.size(); r++) {
+            assertEquals(expected.toEmployee(r), actual.toEmployee(r));
+            assertEquals(expected.managerIndex(r), actual.managerIndex(r));
+            assertEquals(expected.reportCount(r), actual.reportCount(r));
+            assertEquals(expected.rowOf(expected.id(r)), actual.rowOf(actual.id(r)));
+        }
+    }
+
+    @Test
+    void testRoundTrip(@TempDir Path dir) throws IOException {
+        EmployeeTable table = new OrgGenerator(20000, 5).orphanRate(0.01).cycleRate(0.001).toTable();
+        DepthIndex depths = DepthIndex.build(table);
+        Path file = dir.resolve("org.snap");
+
+        EmployeeSnapshot.write(file, table, depths, 123, 456);
+        EmployeeSnapshot loaded = EmployeeSnapshot.read(file, 123, 456);
+
+        assertSameTable(table, loaded.getTable());
+        assertEquals(table.firstName(7), loaded.getTable().firstName(7));
+        assertEquals(depths.maxDepth(), loaded.getDepths().maxDepth());
+        assertArrayEquals(depths.rowsDeeperThan(4), loaded.getDepths().rowsDeeperThan(4));
+        for (int r = 0; r < table.size(); r++) assertEquals(depths.depth(r), loaded.getDepths().depth(r));
+        assertThrows(IOException.class, () -> EmployeeSnapshot.read(file, 124, 456));
+    }
+
+    @Test
+    void testCorruptSnapshotIsRejected(@TempDir Path dir) throws IOException {
+        EmployeeTable table = EmployeeTable.of(EmployeeTableTest.buildSampleEmployees());
+        Path file = dir.resolve("org.snap");
+        EmployeeSnapshot.write(file, table, DepthIndex.build(table), -1, -1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), EmployeeSnapshot.HEADER_BYTES + 9);
+        }
+
+        IOException e = assertThrows(IOException.class, () -> EmployeeSnapshot.read(file, -1, -1));
+        assertEquals("checksum mismatch", e.getMessage());
+    }
+
+    @Test
+    void testLoadOrBuildFallsBackToCsvWhenStale(@TempDir Path dir) throws IOException {
+        Path csv = dir.resolve("org.csv");
+        Path snap = dir.resolve("org.snap");
+        new OrgGenerator(1000, 1).writeCsv(csv);
+
+        EmployeeSnapshot first = EmployeeSnapshot.loadOrBuild(csv, snap, CsvParseMode.STREAMING);
+        assertTrue(Files.isRegularFile(snap));
+        assertSameTable(first.getTable(), EmployeeSnapshot.loadOrBuild(csv, snap, CsvParseMode.STREAMING).getTable());
+
+        new OrgGenerator(1500, 2).writeCsv(csv);
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() + 5000));
+        EmployeeSnapshot rebuilt = EmployeeSnapshot.loadOrBuild(csv, snap, CsvParseMode.STREAMING);
+        assertEquals(1500, rebuilt.getTable().size());
+        assertEquals(1500, EmployeeSnapshot.read(snap, Files.size(csv), Files.getLastModifiedTime(csv).toMillis()).getTable().size());
+    }
+}
@@ -0,0 +1,131 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeTableTest {
+
+    static List<Employee> buildSampleEmployees() {
+        return Arrays.asList(
+                new Employee(1, "Alice", "CEO", 500000, null),
+                new Employee(2, "Bob", "VP", 130000, 1),
+                new Employee(3, "Carol", "VP", 120000, 1),
+                new Employee(4, "David", "Director", 90000, 2),
+                new Employee(5, "Eva", "Director", 95000, 2),
+                new Employee(6, "Frank", "Manager", 70000, 4),
+                new Employee(7, "Grace", "Manager", 120000, 4),
+                new Employee(8, "Hank", "Lead", 50000, 6),
+                new Employee(9, "Ivy", "Lead", 52000, 6),
+                new Employee(10, "Jack", "Dev", 40000, 8),
+                new Employee(11, "Kathy", "Dev", 41000, 8),
+                new Employee(12, "Leo", "Dev", 42000, 9),
+                new Employee(13, "Mona", "Dev", 43000, 9),
+                new Employee(14, "Nina", "QA", 35000, 5),
+                new Employee(15, "Oscar", "QA", 34000, 5),
+                new Employee(16, "Paul", "Support", 33000, 7),
+                new Employee(17, "Quinn", "Support", 32000, 7),
+                new Employee(18, "Ruth", "Sales", 31000, 100), // missing manager
+                new Employee(19, "Sam", "Eng", 30000, null) // no manager, not CEO
+        );
+    }
+
+    /**
+     * Runs the map based analysis and the table analysis and returns both result sets, order ignored.
+     */
+    static List<Set<String>> analyzeBothWays(List<Employee> employees) {
+        Map<Integer, Employee> idToEmployee = ManagerSalaryAnalyzer.buildIdToEmployee(employees);
+        Map<Integer, List<Employee>> managerToReports = ManagerSalaryAnalyzer.buildManagerToReports(employees);
+        Set<String> expected = new HashSet<>(ManagerSalaryAnalyzer.analyzeManagerSalary(managerToReports, idToEmployee));
+        Set<String> actual = new HashSet<>(EmployeeTableAnalyzer.analyzeManagerSalary(EmployeeTable.of(employees)));
+        return Arrays.asList(expected, actual);
+    }
+
+    @Test
+    void testColumnsAndReportIndex() {
+        EmployeeTable table = EmployeeTable.of(buildSampleEmployees());
+
+        assertEquals(19, table.size());
+        int bob = table.rowOf(2);
+        assertEquals(2, table.id(bob));
+        assertEquals("Bob", table.firstName(bob));
+        assertEquals(130000, table.salary(bob));
+        assertEquals(table.rowOf(1), table.managerIndex(bob));
+        assertEquals(EmployeeTable.NO_MANAGER, table.managerIndex(table.rowOf(1)));
+        assertEquals(EmployeeTable.MISSING_MANAGER, table.managerIndex(table.rowOf(18)));
+        assertEquals(100, table.managerId(table.rowOf(18)));
+        assertEquals(-1, table.rowOf(100));
+
+        Set<Integer> reports = new HashSet<>();
+        for (int i = 0; i < table.reportCount(bob); i++) reports.add(table.id(table.report(bob, i)));
+        assertEquals(new HashSet<>(Arrays.asList(4, 5)), reports);
+        assertEquals(new Employee(19, "Sam", "Eng", 30000, null), table.toEmployee(table.rowOf(19)));
+    }
+
+    @Test
+    void testNamesAreDictionaryEncoded() {
+        EmployeeTable.Builder builder = new EmployeeTable.Builder(2);
+        for (int i = 0; i < 1000; i++) {
+            builder.onRow(i, new String("Same"), "Name" + (i % 10), 1, EmployeeRowHandler.NO_MANAGER);
+        }
+        EmployeeTable table = builder.build();
+
+        assertEquals(11, table.names.size());
+        assertSame(table.firstName(0), table.firstName(999));
+        assertEquals("Name9", table.lastName(999));
+    }
+
+    @Test
+    void testDuplicateIdsResolveToLastRow() {
+        EmployeeTable table = EmployeeTable.of(Arrays.asList(
+                new Employee(1, "Alice", "CEO", 100000, null),
+                new Employee(2, "Bob", "Manager1", 90000, 1),
+                new Employee(3, "Carol", "Manager2", 90000, 1),
+                new Employee(4, "Eve", "MultiManaged", 50000, 2),
+                new Employee(4, "Eve", "MultiManaged", 50000, 3)));
+
+        assertEquals(4, table.rowOf(4));
+        assertFalse(table.isActive(3));
+        assertEquals(1, table.reportCount(table.rowOf(2)));
+        assertEquals(1, table.reportCount(table.rowOf(3)));
+    }
+
+    @Test
+    void testAnalysisMatchesMapBasedAnalysis() {
+        List<Employee> employees = new ArrayList<>(buildSampleEmployees());
+        List<Set<String>> results = analyzeBothWays(employees);
+        assertEquals(results.get(0), results.get(1));
+
+        employees.add(new Employee(4, "Eve", "MultiManaged", 50000, 3));
+        results = analyzeBothWays(employees);
+        assertEquals(results.get(0), results.get(1));
+
+        results = analyzeBothWays(Arrays.asList(
+                new Employee(1, "A", "Alpha", 10000, 3),
+                new Employee(2, "B", "Bravo", 9000, 1),
+                new Employee(3, "C", "Charlie", 8000, 2),
+                new Employee(4, "D", "Delta", 7000, 4),
+                new Employee(5, "E", "Echo", 7000, 1)));
+        assertEquals(results.get(0), results.get(1));
+        assertTrue(results.get(1).stream().anyMatch(s -> s.contains("EmployeeId: 5") && s.contains("circular")));
+
+        results = analyzeBothWays(Arrays.asList(
+                new Employee(1, "Alice", "CEO", 100000, null),
+                new Employee(2, "Orphan", "NoManager", 50000, null)));
+        assertEquals(results.get(0), results.get(1));
+    }
+
+    @Test
+    void testCountManagersToCEOMatchesMapBasedCount() {
+        List<Employee> employees = buildSampleEmployees();
+        Map<Integer, Employee> idToEmployee = ManagerSalaryAnalyzer.buildIdToEmployee(employees);
+        EmployeeTable table = EmployeeTable.of(employees);
+
+        for (int r = 0; r < table.size(); r++) {
+            assertEquals(ManagerSalaryAnalyzer.countManagersToCEO(employees.get(r), idToEmployee),
+                    EmployeeTableAnalyzer.countManagersToCEO(table, r), "row " + r);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalMemoryAnalyzerTest {
+
+    private static List<Finding> inMemory(Path csv) {
+        CollectingFindingSink sink = new CollectingFindingSink();
+        EmployeeTableAnalyzer.analyze(ManagerSalaryAnalyzer.readEmployeeTable(csv, CsvParseMode.STREAMING), 1, 4, sink);
+        return sink.getFindings();
+    }
+
+    private static List<Finding> external(Path csv, long budget, Path spill) throws IOException {
+        CollectingFindingSink sink = new CollectingFindingSink();
+        new ExternalMemoryAnalyzer(budget, spill).analyze(csv, 4, sink);
+        return sink.getFindings();
+    }
+
+    private static void assertNoSpillLeft(Path spill) throws IOException {
+        try (Stream<Path> files = Files.list(spill)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testMatchesInMemoryAnalysis(@TempDir Path dir) throws IOException {
+        Path csv = dir.resolve("org.csv");
+        new OrgGenerator(30000, 11).fanOut(1, 6).underpaidRate(0.02).overpaidRate(0.02)
+                .orphanRate(0.005).extraRootRate(0.001).cycleRate(0.002).writeCsv(csv);
+        // Duplicate ids: a repeated report and a moved manager, the last row wins.
+        Files.write(csv, Arrays.asList("17,Dup,Report,1000,3", "5,Moved,Manager,90000,2"), StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        Path spill = Files.createDirectory(dir.resolve("spill"));
+        List<Finding> expected = inMemory(csv);
+        assertTrue(expected.stream().anyMatch(f -> f.getKind() == Finding.Kind.CIRCULAR_REPORTING));
+        assertTrue(expected.stream().anyMatch(f -> f.getKind() == Finding.Kind.MULTIPLE_MANAGERS));
+        assertTrue(expected.stream().anyMatch(f -> f.getKind() == Finding.Kind.DEEP_REPORTING_LINE));
+
+        ExternalMemoryAnalyzer single = new ExternalMemoryAnalyzer(1L << 30, spill);
+        CollectingFindingSink sink = new CollectingFindingSink();
+        single.analyze(csv, 4, sink);
+        assertEquals(1, single.getPartitions());
+        assertEquals(expected, sink.getFindings());
+
+        ExternalMemoryAnalyzer partitioned = new ExternalMemoryAnalyzer(64 * 1024, spill);
+        sink = new CollectingFindingSink();
+        partitioned.analyze(csv, 4, sink);
+        assertTrue(partitioned.getPartitions() > 50, "partitions " + partitioned.getPartitions());
+        assertEquals(expected, sink.getFindings());
+        assertNoSpillLeft(spill);
+    }
+
+    @Test
+    void testSpillsNamesLongerThanWriteUtfAllows(@TempDir Path dir) throws IOException {
+        Path csv = dir.resolve("org.csv");
+        StringBuilder name = new StringBuilder();
+        while (name.length() < 70000) name.append("Ångström");
+        List<String> lines = new ArrayList<>();
+        lines.add("Id,firstName,lastName,salary,managerId");
+        // A chain of 7 (a deep line for 7), an underpaid manager 2 and a cycle 8 <-> 9, all with long names.
+        for (int id = 1; id <= 7; id++) {
+            lines.add(id + ",E" + id + "," + name + "," + (id == 2 ? 1000 : 200000 - id * 10000) + "," + (id == 1 ? "" : id - 1));
+        }
+        lines.add("8," + name + ",Loop,50000,9");
+        lines.add("9," + name + ",Loop,50000,8");
+        Files.write(csv, lines, StandardCharsets.UTF_8);
+
+        List<Finding> expected = inMemory(csv);
+        assertTrue(expected.stream().anyMatch(f -> f.getKind() == Finding.Kind.UNDERPAID));
+        assertTrue(expected.stream().anyMatch(f -> f.getKind() == Finding.Kind.DEEP_REPORTING_LINE));
+        assertTrue(expected.stream().anyMatch(f -> f.getKind() == Finding.Kind.CIRCULAR_REPORTING));
+        assertEquals(expected, external(csv, 1L << 30, dir));
+    }
+
+    @Test
+    void testDeepChainsResolveInLogarithmicRounds(@TempDir Path dir) throws IOException {
+        Path csv = dir.resolve("org.csv");
+        List<String> lines = new ArrayList<>();
+        lines.add("Id,firstName,lastName,salary,managerId");
+        // One chain of 1000, listed bottom-up so no manager comes before its reports.
+        for (int id = 1000; id >= 1; id--) lines.add(id + ",E" + id + ",Chain," + (200000 - id * 100) + "," + (id == 1 ? "" : id - 1));
+        Files.write(csv, lines, StandardCharsets.UTF_8);
+
+        ExternalMemoryAnalyzer analyzer = new ExternalMemoryAnalyzer(4096, dir);
+        CollectingFindingSink sink = new CollectingFindingSink();
+        analyzer.analyze(csv, 4, sink);
+        assertEquals(inMemory(csv), sink.getFindings());
+        assertTrue(analyzer.getDepthRounds() <= 12, "rounds " + analyzer.getDepthRounds());
+    }
+
+    @Test
+    void testSampleAndTwoPersonCompany(@TempDir Path dir) throws IOException {
+        Path csv = dir.resolve("org.csv");
+        List<String> lines = new ArrayList<>();
+        lines.add("Id,firstName,lastName,salary,managerId");
+        for (Employee e : EmployeeTableTest.buildSampleEmployees()) {
+            lines.add(e.id + "," + e.firstName + "," + e.lastName + "," + e.salary + "," + (e.managerId == null ? "" : e.managerId));
+        }
+        Files.write(csv, lines, StandardCharsets.UTF_8);
+        assertEquals(inMemory(csv), external(csv, 1024, dir));
+
+        Files.write(csv, Arrays.asList("Id,firstName,lastName,salary,managerId", "1,Joe,Doe,60000,", "2,Martin,Chekov,45000,1"),
+                StandardCharsets.UTF_8);
+        List<Finding> findings = external(csv, 1024, dir);
+        assertEquals(inMemory(csv), findings);
+        assertEquals(Finding.Kind.NOT_CEO, findings.get(0).getKind());
+    }
+}
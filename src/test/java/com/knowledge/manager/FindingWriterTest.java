@@ -0,0 +1,84 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FindingWriterTest {
+
+    private static final Finding UNDERPAID = new Finding.SalaryBand(Finding.Kind.UNDERPAID, 2, "Bob", "Jones",
+            10000, 78000, 65000, 3, 60000, 70000);
+    private static final Finding DEEP = new Finding.DeepReportingLine(15, "Oscar", "Hall", 8, 4);
+    private static final Finding CYCLE = new Finding.CircularReporting(7, "Quote\"d", "Comma,Name");
+    private static final Finding RULE = new Finding.RuleViolation("span", 4, "Dana", "Lee", "direct reports", 12, 8, true);
+
+    private static String write(FindingWriter.Format format, Finding... findings) throws Exception {
+        StringWriter out = new StringWriter();
+        try (FindingWriter writer = new FindingWriter(out, format)) {
+            for (Finding finding : findings) writer.accept(finding);
+        }
+        return out.toString();
+    }
+
+    @Test
+    void testTextMatchesClassicMessages() throws Exception {
+        assertEquals("ManagerId: 2 (Bob Jones) is UNDERPAID by 68000 (earns 10000, should earn at least 78000), average subordinate salary: 65000\n"
+                        + "EmployeeId: 15 (Oscar Hall) has 8 managers between them and the CEO.\n",
+                write(FindingWriter.Format.TEXT, UNDERPAID, DEEP));
+    }
+
+    @Test
+    void testCsvUsesFixedColumns() throws Exception {
+        String[] lines = write(FindingWriter.Format.CSV, UNDERPAID, DEEP, CYCLE, RULE).split("\n");
+
+        assertEquals(5, lines.length);
+        assertEquals(String.join(",", FindingWriter.CSV_COLUMNS), lines[0]);
+        assertEquals("UNDERPAID,2,Bob,Jones,10000.0,78000.0,68000.0,65000.0,3,60000.0,70000.0,,,,,,,,,,,", lines[1]);
+        assertEquals("DEEP_REPORTING_LINE,15,Oscar,Hall,,,,,,,,8,4,4,,,,,,,,", lines[2]);
+        assertEquals("CIRCULAR_REPORTING,7,\"Quote\"\"d\",\"Comma,Name\",,,,,,,,,,,,,,,,,,", lines[3]);
+        assertEquals("RULE_VIOLATION,4,Dana,Lee,,,,,,,,,,,,span,direct reports,12.0,8.0,true,,", lines[4]);
+
+        assertTrue(write(FindingWriter.Format.CSV, new Finding.NotCeo(9, "Carriage\rReturn", "Lee"))
+                .endsWith("\nNOT_CEO,9,\"Carriage\rReturn\",Lee,,,,,,,,,,,,,,,,,,\n"));
+    }
+
+    @Test
+    void testJsonLines() throws Exception {
+        String[] lines = write(FindingWriter.Format.JSON_LINES, DEEP, CYCLE, new Finding.MultipleCeo(3), RULE).split("\n");
+
+        assertEquals("{\"kind\":\"DEEP_REPORTING_LINE\",\"employeeId\":15,\"firstName\":\"Oscar\",\"lastName\":\"Hall\","
+                + "\"managerCount\":8,\"threshold\":4,\"excess\":4}", lines[0]);
+        assertEquals("{\"kind\":\"CIRCULAR_REPORTING\",\"employeeId\":7,\"firstName\":\"Quote\\\"d\",\"lastName\":\"Comma,Name\"}", lines[1]);
+        assertEquals("{\"kind\":\"MULTIPLE_CEO\",\"ceoCount\":3}", lines[2]);
+        assertEquals("{\"kind\":\"RULE_VIOLATION\",\"rule\":\"span\",\"employeeId\":4,\"firstName\":\"Dana\","
+                + "\"lastName\":\"Lee\",\"measure\":\"direct reports\",\"value\":12.0,\"limit\":8.0,\"aboveLimit\":true}", lines[3]);
+    }
+
+    @Test
+    void testJsonWritesNonFiniteNumbersAsNull() throws Exception {
+        Finding ratio = new Finding.RuleViolation("ratio", 4, "Dana", "Lee", "salary ratio", Double.NaN, Double.POSITIVE_INFINITY, true);
+
+        assertEquals("{\"kind\":\"RULE_VIOLATION\",\"rule\":\"ratio\",\"employeeId\":4,\"firstName\":\"Dana\","
+                + "\"lastName\":\"Lee\",\"measure\":\"salary ratio\",\"value\":null,\"limit\":null,\"aboveLimit\":true}\n",
+                write(FindingWriter.Format.JSON_LINES, ratio));
+    }
+
+    @Test
+    void testFullAnalysisStreamsEveryCategory() {
+        CollectingFindingSink sink = new CollectingFindingSink();
+        EmployeeTableAnalyzer.analyze(EmployeeTable.of(EmployeeTableTest.buildSampleEmployees()), 2, 4, sink);
+
+        assertTrue(sink.getFindings().stream().anyMatch(f -> f.getKind() == Finding.Kind.MULTIPLE_CEO));
+        assertTrue(sink.getFindings().stream().anyMatch(f -> f.getKind() == Finding.Kind.OVERPAID));
+        assertEquals(4, sink.getFindings().stream().filter(f -> f.getKind() == Finding.Kind.DEEP_REPORTING_LINE).count());
+    }
+
+    @Test
+    void testParseFormat() {
+        assertEquals(FindingWriter.Format.JSON_LINES, FindingWriter.Format.parse("jsonl"));
+        assertEquals(FindingWriter.Format.CSV, FindingWriter.Format.parse("CSV"));
+        assertThrows(IllegalArgumentException.class, () -> FindingWriter.Format.parse("xml"));
+    }
+}
@@ -0,0 +1,156 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalAnalyzerTest {
+
+    private static final int THRESHOLD = 4;
+
+    /**
+     * Full analysis of the current org: salary band and deep reporting line findings.
+     */
+    private static List<Finding> fullAnalysis(Collection<Employee> employees) {
+        EmployeeTable table = EmployeeTable.of(new ArrayList<>(employees));
+        StructureValidator structure = StructureValidator.validate(table);
+        CollectingFindingSink sink = new CollectingFindingSink();
+        SalaryBandAnalyzer.analyze(table, structure, 1, sink);
+        List<Finding> deep = new ArrayList<>();
+        EmployeeTableAnalyzer.reportDeepHierarchy(table, DepthIndex.build(table), THRESHOLD, deep::add);
+        deep.sort(Comparator.comparingInt(f -> ((Finding.DeepReportingLine) f).getEmployeeId()));
+        List<Finding> findings = new ArrayList<>(sink.getFindings());
+        findings.addAll(deep);
+        return findings;
+    }
+
+    private static List<Finding> incrementalFindings(IncrementalAnalyzer analyzer) {
+        List<Finding> findings = new ArrayList<>(analyzer.getSalaryFindings());
+        findings.addAll(analyzer.getDeepReportingLines());
+        return findings;
+    }
+
+    @Test
+    void testInitialLoadMatchesFullAnalysis() {
+        List<Employee> employees = EmployeeTableTest.buildSampleEmployees();
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(employees, THRESHOLD);
+
+        assertEquals(fullAnalysis(employees), incrementalFindings(analyzer));
+        assertEquals(5, analyzer.depth(10));
+        assertEquals(1, analyzer.depth(18));
+    }
+
+    @Test
+    void testRandomDeltasMatchFullAnalysis() {
+        Random random = new Random(11);
+        Map<Integer, Employee> current = new LinkedHashMap<>();
+        for (Employee e : EmployeeTableTest.buildSampleEmployees()) current.put(e.id, e);
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(new ArrayList<>(current.values()), THRESHOLD);
+
+        for (int step = 0; step < 400; step++) {
+            int id = 1 + random.nextInt(30);
+            int roll = random.nextInt(10);
+            if (roll < 2) {
+                current.remove(id);
+                analyzer.delete(id);
+            } else {
+                // Hires, raises and transfers, including moves that close or break a loop.
+                Integer managerId = roll == 2 ? null : 1 + random.nextInt(32);
+                Employee existing = current.get(id);
+                if (existing != null && roll < 6) managerId = existing.managerId;
+                Employee e = new Employee(id, "F" + id, "L" + id, 20000 + random.nextInt(200000), managerId);
+                current.put(id, e);
+                analyzer.upsert(e);
+            }
+            assertEquals(fullAnalysis(current.values()), incrementalFindings(analyzer), "step " + step);
+        }
+    }
+
+    @Test
+    void testTransferOnlyTouchesAffectedManagers() {
+        List<Employee> employees = EmployeeTableTest.buildSampleEmployees();
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(employees, THRESHOLD);
+        List<Finding> added = new ArrayList<>();
+        List<Finding> removed = new ArrayList<>();
+        analyzer.setListener(new IncrementalAnalyzer.Listener() {
+            @Override
+            public void findingAdded(Finding finding) {
+                added.add(finding);
+            }
+
+            @Override
+            public void findingRemoved(Finding finding) {
+                removed.add(finding);
+            }
+        });
+
+        // Frank's team moves from David to Carol: one level shallower, so the devs are no longer past the threshold.
+        analyzer.upsert(new Employee(6, "Frank", "Manager", 70000, 3));
+
+        assertEquals(4, analyzer.depth(10));
+        assertTrue(analyzer.getDeepReportingLines().isEmpty());
+        assertEquals(4, removed.stream().filter(f -> f.getKind() == Finding.Kind.DEEP_REPORTING_LINE).count());
+        for (Finding f : added) {
+            assertTrue(f instanceof Finding.SalaryBand);
+            assertTrue(Arrays.asList(3, 4).contains(((Finding.SalaryBand) f).getManagerId()));
+        }
+    }
+
+    @Test
+    void testMoveUnderOwnSubtreeIsCycle() {
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(EmployeeTableTest.buildSampleEmployees(), THRESHOLD);
+
+        analyzer.upsert(new Employee(4, "David", "Director", 90000, 8));
+        assertEquals(DepthIndex.CYCLE, analyzer.depth(4));
+        assertEquals(DepthIndex.CYCLE, analyzer.depth(12));
+        assertEquals(2, analyzer.depth(5));
+
+        analyzer.upsert(new Employee(4, "David", "Director", 90000, 2));
+        assertEquals(5, analyzer.depth(12));
+    }
+
+    @Test
+    void testApplyDeltaCsv(@TempDir Path dir) throws Exception {
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(EmployeeTableTest.buildSampleEmployees(), THRESHOLD);
+        Path delta = dir.resolve("delta.csv");
+        Files.write(delta, Arrays.asList(
+                "op,Id,firstName,lastName,salary,managerId",
+                "U,20,New,Hire,45000,6",
+                "D,19",
+                "U,18,Ruth,Sales,31000,"), StandardCharsets.UTF_8);
+
+        assertEquals(3, analyzer.applyDeltaCsv(delta));
+        assertEquals(19, analyzer.size());
+        assertNull(analyzer.getEmployee(19));
+        assertEquals(4, analyzer.depth(20));
+        assertEquals(0, analyzer.depth(18));
+    }
+
+    @Test
+    void testApplyDeltaCsvTrimsFieldsAndRejectsBadRowsBeforeApplying(@TempDir Path dir) throws Exception {
+        IncrementalAnalyzer analyzer = new IncrementalAnalyzer(EmployeeTableTest.buildSampleEmployees(), THRESHOLD);
+        Path delta = dir.resolve("delta.csv");
+        Files.write(delta, Arrays.asList(
+                "op,Id,firstName,lastName,salary,managerId",
+                "U, 20 , New , Hire , 45000 , ",
+                "",
+                "D,19",
+                "U,21,Bad,Salary,lots,6"), StandardCharsets.UTF_8);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> analyzer.applyDeltaCsv(delta));
+        assertTrue(e.getMessage().startsWith("Delta line 5 (U,21,Bad,Salary,lots,6)"), e.getMessage());
+        assertNull(analyzer.getEmployee(20));
+        assertNotNull(analyzer.getEmployee(19));
+
+        Files.write(delta, Arrays.asList("op,Id,firstName,lastName,salary,managerId", "U, 20 , New , Hire , 45000 , "),
+                StandardCharsets.UTF_8);
+        assertEquals(1, analyzer.applyDeltaCsv(delta));
+        assertEquals(new Employee(20, "New", "Hire", 45000, null), analyzer.getEmployee(20));
+    }
+}
@@ -0,0 +1,83 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCsvReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMatchesStreamingReaderRowForRow() throws Exception {
+        Path file = tempDir.resolve("org.csv");
+        Random random = new Random(42);
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("Id,firstName,lastName,salary,managerId\r\n");
+            for (int i = 1; i <= 200_000; i++) {
+                switch (random.nextInt(50)) {
+                    case 0:
+                        w.write(i + ",Short,Row\r\n");
+                        break;
+                    case 1:
+                        w.write("bad," + i + ",Row,1,\r\n");
+                        break;
+                    case 2:
+                        w.write(i + ",Zoë,Ångström," + random.nextInt(100000) + ".5,\r\n");
+                        break;
+                    default:
+                        w.write(i + ",First" + i + ",Last," + (20000 + random.nextInt(100000)) + "," + (i / 3 + 1) + "\r\n");
+                }
+            }
+            w.write("200001,No,Newline,1000,1");
+        }
+
+        List<Employee> streamed = ManagerSalaryAnalyzer.readEmployeesFromCsv(file, CsvParseMode.STREAMING);
+        List<Employee> mapped = ManagerSalaryAnalyzer.readEmployeesFromCsv(file, CsvParseMode.MAPPED_PARALLEL);
+
+        assertNotNull(mapped);
+        assertEquals(streamed, mapped);
+        assertEquals("Newline", mapped.get(mapped.size() - 1).lastName);
+    }
+
+    @Test
+    void testSplitRangesAlignToLineStarts() throws Exception {
+        Path file = tempDir.resolve("ranges.csv");
+        Files.write(file, "header\n1,A,B,1,\n2,C,D,2,1\n3,E,F,3,1\n".getBytes(StandardCharsets.UTF_8));
+        byte[] bytes = Files.readAllBytes(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = MappedCsvReader.splitRanges(channel, 5);
+            assertEquals(0, bounds[0]);
+            assertEquals(bytes.length, bounds[bounds.length - 1]);
+            for (int i = 1; i < bounds.length - 1; i++) {
+                assertEquals('\n', bytes[(int) bounds[i] - 1], "boundary " + bounds[i]);
+            }
+        }
+    }
+
+    @Test
+    void testCountsMatchStreamingReader() throws Exception {
+        Path file = tempDir.resolve("counts.csv");
+        Files.write(file, "header\n1,A,B,1,\n\n2,C,D\n3,E,F,x,1\n".getBytes(StandardCharsets.UTF_8));
+        EmployeeCsvReader streaming = new EmployeeCsvReader((id, f, l, s, m) -> { });
+        MappedCsvReader mapped = new MappedCsvReader((id, f, l, s, m) -> { }, 2);
+
+        streaming.read(file);
+        mapped.read(file);
+
+        assertEquals(streaming.getRowsRead(), mapped.getRowsRead());
+        assertEquals(streaming.getRowsSkipped(), mapped.getRowsSkipped());
+    }
+}
@@ -0,0 +1,77 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    @Test
+    void testNoopRecordsNothing() {
+        CollectingFindingSink sink = new CollectingFindingSink();
+        assertSame(sink, Metrics.NOOP.counting(sink));
+
+        EmployeeTable table = EmployeeTable.of(EmployeeTableTest.buildSampleEmployees());
+        EmployeeTableAnalyzer.analyze(table, DepthIndex.build(table), 1, 4, sink, Metrics.NOOP);
+        Metrics.NOOP.increment("queries");
+        assertFalse(sink.getFindings().isEmpty());
+        assertEquals("{\"phaseMillis\":{},\"rowsParsed\":0,\"rowsSkipped\":0,\"rowsPerSecond\":0,\"findings\":{},"
+                + "\"indexSizes\":{},\"counters\":{}}", Metrics.NOOP.getSummaryJson());
+    }
+
+    @Test
+    void testRecordsPhasesRowsAndFindings(@TempDir Path dir) throws Exception {
+        Path csv = dir.resolve("org.csv");
+        OrgGenerator.Stats stats = new OrgGenerator(5000, 4).underpaidRate(0.02).overpaidRate(0.02).writeCsv(csv);
+        Files.write(csv, "not,a,valid,row,\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        Metrics metrics = Metrics.create();
+        EmployeeTable table = ManagerSalaryAnalyzer.readEmployeeTable(csv, CsvParseMode.STREAMING, metrics);
+        CollectingFindingSink sink = new CollectingFindingSink();
+        EmployeeTableAnalyzer.analyze(table, DepthIndex.build(table), 1, 4, sink, metrics);
+
+        assertEquals(5000, metrics.getRowsParsed());
+        assertEquals(1, metrics.getRowsSkipped());
+        assertTrue(metrics.getRowsPerSecond() > 0);
+        assertEquals(new HashSet<>(Arrays.asList("parse", "index", "structure", "salaryBands", "deepLines")),
+                metrics.getPhaseMillis().keySet());
+        Map<String, Long> findings = metrics.getFindingCounts();
+        assertEquals(Long.valueOf(stats.getUnderpaidManagers()), findings.get("UNDERPAID"));
+        assertEquals(Long.valueOf(stats.getOverpaidManagers()), findings.get("OVERPAID"));
+        assertEquals(sink.getFindings().size(), findings.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(5000L, metrics.getIndexSizes().get("rows"));
+        assertEquals(4999L, metrics.getIndexSizes().get("reportEdges"));
+    }
+
+    @Test
+    void testRegisteredAsMBean() throws Exception {
+        Metrics metrics = Metrics.create();
+        metrics.increment("queries/band");
+        metrics.increment("queries/band");
+        metrics.rows(10, 2);
+        metrics.registerMBean();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        assertEquals(10L, server.getAttribute(name, "RowsParsed"));
+        assertEquals(2L, server.getAttribute(name, "RowsSkipped"));
+        assertTrue(((String) server.getAttribute(name, "SummaryJson")).endsWith("\"counters\":{\"queries/band\":2}}"));
+
+        Metrics replacement = Metrics.create();
+        replacement.registerMBean();
+        assertEquals(0L, server.getAttribute(name, "RowsParsed"));
+        server.unregisterMBean(name);
+    }
+}
@@ -0,0 +1,90 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrgGeneratorTest {
+
+    private static OrgGenerator anomalous(int rows, long seed) {
+        return new OrgGenerator(rows, seed)
+                .fanOut(1, 6)
+                .maxDepth(9)
+                .underpaidRate(0.02)
+                .overpaidRate(0.03)
+                .orphanRate(0.001)
+                .extraRootRate(0.0005)
+                .cycleRate(0.0005);
+    }
+
+    private static long count(CollectingFindingSink sink, Finding.Kind kind) {
+        return sink.getFindings().stream().filter(f -> f.getKind() == kind).count();
+    }
+
+    @Test
+    void testSameSeedSameOutput() throws Exception {
+        StringWriter first = new StringWriter();
+        StringWriter second = new StringWriter();
+        anomalous(5000, 3).writeCsv(first);
+        anomalous(5000, 3).writeCsv(second);
+        StringWriter other = new StringWriter();
+        anomalous(5000, 4).writeCsv(other);
+
+        assertEquals(first.toString(), second.toString());
+        assertNotEquals(first.toString(), other.toString());
+    }
+
+    @Test
+    void testCsvAndTableHoldTheSameRows(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("org.csv");
+        OrgGenerator.Stats stats = anomalous(20000, 9).writeCsv(file);
+        EmployeeTable fromCsv = ManagerSalaryAnalyzer.readEmployeeTable(file, CsvParseMode.STREAMING);
+        EmployeeTable inMemory = anomalous(20000, 9).toTable();
+
+        assertEquals(20000, stats.getRows());
+        assertEquals(inMemory.size(), fromCsv.size());
+        for (int r = 0; r < inMemory.size(); r++) {
+            assertEquals(inMemory.toEmployee(r), fromCsv.toEmployee(r));
+        }
+    }
+
+    @Test
+    void testInjectedAnomaliesAreExactlyWhatIsReported() {
+        OrgGenerator generator = anomalous(50000, 17);
+        EmployeeTable.Builder builder = new EmployeeTable.Builder(50000);
+        OrgGenerator.Stats stats = generator.generate(builder);
+        EmployeeTable table = builder.build();
+        CollectingFindingSink sink = new CollectingFindingSink();
+        EmployeeTableAnalyzer.analyze(table, 1, 4, sink);
+
+        assertTrue(stats.getUnderpaidManagers() > 0 && stats.getOverpaidManagers() > 0 && stats.getCycleRows() > 0);
+        assertEquals(stats.getUnderpaidManagers() + stats.getCycleRows(), count(sink, Finding.Kind.UNDERPAID));
+        assertEquals(stats.getOverpaidManagers(), count(sink, Finding.Kind.OVERPAID));
+        assertEquals(stats.getCycleRows(), count(sink, Finding.Kind.CIRCULAR_REPORTING));
+        assertEquals(stats.getExtraRoots() > 0 ? 1 : 0, count(sink, Finding.Kind.MULTIPLE_CEO));
+        int orphans = 0;
+        for (int r = 0; r < table.size(); r++) {
+            if (table.managerIndex(r) == EmployeeTable.MISSING_MANAGER) orphans++;
+        }
+        assertEquals(stats.getOrphans(), orphans);
+    }
+
+    @Test
+    void testCleanOrgRespectsShape() {
+        EmployeeTable.Builder builder = new EmployeeTable.Builder(100000);
+        OrgGenerator.Stats stats = new OrgGenerator(100000, 1).fanOut(3, 5).maxDepth(6).generate(builder);
+        EmployeeTable table = builder.build();
+        DepthIndex depths = DepthIndex.build(table);
+        CollectingFindingSink sink = new CollectingFindingSink();
+        EmployeeTableAnalyzer.analyze(table, 1, 4, sink);
+
+        assertEquals(6, depths.maxDepth());
+        assertEquals(6, stats.getMaxDepth());
+        assertEquals(0, count(sink, Finding.Kind.UNDERPAID) + count(sink, Finding.Kind.OVERPAID));
+        assertEquals(depths.countDeeperThan(4), count(sink, Finding.Kind.DEEP_REPORTING_LINE));
+    }
+}
@@ -0,0 +1,136 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrgHistoryTest {
+
+    private static final int THRESHOLD = 4;
+    private static final LocalDate DAY_ONE = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void testDiffsBetweenDays() {
+        OrgHistory history = new OrgHistory(THRESHOLD);
+        List<Employee> employees = EmployeeTableTest.buildSampleEmployees();
+        history.add(DAY_ONE, employees);
+
+        Map<Integer, Employee> next = new LinkedHashMap<>();
+        for (Employee e : employees) next.put(e.id, new Employee(e.id, e.firstName, e.lastName, e.salary, e.managerId));
+        next.get(7).setSalary(45000);                               // Grace is back in her band
+        next.remove(13);                                            // Mona leaves
+        next.put(20, new Employee(20, "Zoe", "Dev", 30000, 13));    // and her hire now reports to no one
+        history.add(DAY_ONE.plusDays(1), new ArrayList<>(next.values()));
+
+        List<OrgHistory.RowChange> rows = history.diffRows(DAY_ONE, DAY_ONE.plusDays(1));
+        assertEquals(Arrays.asList(7, 13, 20), rows.stream().map(OrgHistory.RowChange::getId).collect(Collectors.toList()));
+        assertEquals(120000, rows.get(0).getBefore().getSalary());
+        assertEquals(45000, rows.get(0).getAfter().getSalary());
+        assertNull(rows.get(1).getAfter());
+        assertNull(rows.get(2).getBefore());
+
+        OrgHistory.FindingDiff findings = history.diffFindings(DAY_ONE, DAY_ONE.plusDays(1));
+        assertTrue(findings.getDisappeared().stream().anyMatch(f -> f.toText().startsWith("ManagerId: 7 (Grace Manager) is OVERPAID")));
+        assertFalse(findings.getAppeared().stream().anyMatch(f -> f.toText().startsWith("ManagerId: 7 ")));
+        // Mona was a deep reporting line; Zoe hangs below a missing manager at depth 1.
+        assertTrue(findings.getDisappeared().stream().anyMatch(f -> f.toText().contains("(Mona Dev)")));
+
+        // Any date maps to the version in effect then; the day before the first has none.
+        assertEquals(19, history.at(DAY_ONE.plusDays(30)).size());
+        assertNull(history.at(DAY_ONE.minusDays(1)));
+        assertEquals(19, history.diffRows(DAY_ONE.minusDays(1), DAY_ONE).size());
+        assertTrue(history.diffRows(DAY_ONE.plusDays(1), DAY_ONE.plusDays(9)).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> history.add(DAY_ONE, employees));
+    }
+
+    @Test
+    void testRandomDaysMatchFullAnalysisAndShareStructure() {
+        EmployeeTable table = new OrgGenerator(20000, 8).underpaidRate(0.02).overpaidRate(0.02).orphanRate(0.002).toTable();
+        Map<Integer, Employee> current = new TreeMap<>();
+        // Whole salaries, so band sums do not depend on the order reports are added in.
+        for (int r = 0; r < table.size(); r++) {
+            Employee e = table.toEmployee(r);
+            e.setSalary(Math.round(e.salary));
+            current.put(e.id, e);
+        }
+        Random random = new Random(5);
+        OrgHistory history = new OrgHistory(THRESHOLD);
+        List<Map<Integer, Employee>> days = new ArrayList<>();
+        int nextId = 1_000_000;
+
+        for (int day = 0; day < 60; day++) {
+            if (day > 0) {
+                List<Integer> ids = new ArrayList<>(current.keySet());
+                for (int change = 0; change < 10; change++) {
+                    Employee e = current.get(ids.get(random.nextInt(ids.size())));
+                    if (e == null) continue;
+                    int kind = random.nextInt(4);
+                    if (kind == 0) {
+                        current.remove(e.id);
+                    } else if (kind == 1) {
+                        current.put(nextId, new Employee(nextId, "New", "Hire", 40000, e.id));
+                        nextId++;
+                    } else {
+                        Employee updated = new Employee(e.id, e.firstName, e.lastName, e.salary, e.managerId);
+                        if (kind == 2) updated.setSalary(Math.round(e.salary * (0.5 + random.nextDouble())));
+                        else updated.setManagerId(ids.get(random.nextInt(ids.size())));
+                        current.put(e.id, updated);
+                    }
+                }
+            }
+            days.add(new TreeMap<>(current));
+            OrgHistory.Version version = history.add(DAY_ONE.plusDays(day), new ArrayList<>(current.values()));
+
+            if (day % 10 == 0 || day == 59) {
+                IncrementalAnalyzer fresh = new IncrementalAnalyzer(new ArrayList<>(current.values()), THRESHOLD);
+                assertEquals(fresh.getSalaryFindings(), version.getSalaryFindings(), "day " + day);
+                assertEquals(fresh.getDeepReportingLines(), version.getDeepReportingLines(), "day " + day);
+            }
+        }
+
+        for (int i = 0; i < 20; i++) {
+            int from = random.nextInt(days.size());
+            int to = random.nextInt(days.size());
+            Map<Integer, Employee> before = days.get(from);
+            Map<Integer, Employee> after = days.get(to);
+            Set<Integer> ids = new TreeSet<>(before.keySet());
+            ids.addAll(after.keySet());
+            List<Integer> expected = ids.stream().filter(id -> !Objects.equals(before.get(id), after.get(id))).collect(Collectors.toList());
+            List<OrgHistory.RowChange> changes = history.diffRows(DAY_ONE.plusDays(from), DAY_ONE.plusDays(to));
+            assertEquals(expected, changes.stream().map(OrgHistory.RowChange::getId).collect(Collectors.toList()));
+        }
+
+        List<PersistentIntMap<?>> maps = new ArrayList<>();
+        for (LocalDate date : history.dates()) maps.add(history.at(date).employees);
+        int oneDay = PersistentIntMap.countNodes(maps.subList(0, 1));
+        int allDays = PersistentIntMap.countNodes(maps);
+        assertTrue(allDays < oneDay * 4, allDays + " nodes for 60 days, " + oneDay + " for one");
+    }
+
+    @Test
+    void testAddFromCsvKeepsLastDuplicate(@TempDir Path dir) throws IOException {
+        Path first = dir.resolve("2024-01-01.csv");
+        Path second = dir.resolve("2024-01-02.csv");
+        Files.write(first, Arrays.asList("Id,firstName,lastName,salary,managerId",
+                "1,Alice,CEO,200000,", "2,Bob,Lead,90000,1", "3,Carol,Dev,60000,2"), StandardCharsets.UTF_8);
+        Files.write(second, Arrays.asList("Id,firstName,lastName,salary,managerId",
+                "1,Alice,CEO,200000,", "2,Bob,Lead,70000,1", "3,Carol,Dev,60000,2", "2,Bob,Lead,90000,1"),
+                StandardCharsets.UTF_8);
+        OrgHistory history = new OrgHistory(THRESHOLD);
+        history.add(DAY_ONE, first);
+        OrgHistory.Version version = history.add(DAY_ONE.plusDays(1), second);
+
+        assertEquals(90000, version.getEmployee(2).getSalary());
+        assertTrue(history.diffRows(DAY_ONE, DAY_ONE.plusDays(1)).isEmpty());
+        assertTrue(history.diffFindings(DAY_ONE, DAY_ONE.plusDays(1)).getAppeared().isEmpty());
+    }
+}
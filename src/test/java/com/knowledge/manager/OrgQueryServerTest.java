@@ -0,0 +1,133 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrgQueryServerTest {
+
+    private OrgQueryServer server;
+    private int port;
+
+    private void start(Path csv) throws IOException {
+        server = new OrgQueryServer(csv, null, CsvParseMode.STREAMING, 4);
+        port = server.start(0);
+    }
+
+    @AfterEach
+    void stop() {
+        if (server != null) server.stop();
+    }
+
+    private String call(String method, String path, int expectedStatus) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestMethod(method);
+        assertEquals(expectedStatus, connection.getResponseCode(), path);
+        try (InputStream in = expectedStatus < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int n; (n = in.read(buffer)) > 0; ) body.write(buffer, 0, n);
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Path writeSample(Path dir) throws IOException {
+        Path csv = dir.resolve("org.csv");
+        List<String> lines = new ArrayList<>();
+        lines.add("Id,firstName,lastName,salary,managerId");
+        for (Employee e : EmployeeTableTest.buildSampleEmployees()) {
+            lines.add(e.id + "," + e.firstName + "," + e.lastName + "," + e.salary + "," + (e.managerId == null ? "" : e.managerId));
+        }
+        Files.write(csv, lines, StandardCharsets.UTF_8);
+        return csv;
+    }
+
+    @Test
+    void testQueries(@TempDir Path dir) throws IOException {
+        start(writeSample(dir));
+
+        assertTrue(call("GET", "/status", 200).startsWith("{\"rows\":19,\"roots\":2,\"maxDepth\":5,"));
+        String band = call("GET", "/band?id=7", 200);
+        assertTrue(band.contains("\"status\":\"OVERPAID\""), band);
+        assertTrue(band.contains("\"finding\":{\"kind\":\"OVERPAID\",\"employeeId\":7"), band);
+        assertTrue(call("GET", "/band?id=10", 200).contains("\"status\":\"NOT_A_MANAGER\""));
+
+        assertTrue(call("GET", "/depth?id=12", 200).endsWith("\"managerCount\":5,\"threshold\":4,\"tooLong\":true}"));
+        String chain = call("GET", "/chain?id=12", 200);
+        assertTrue(chain.contains("\"managers\":[{\"employeeId\":9,"), chain);
+        assertTrue(chain.endsWith("\"end\":\"CEO\"}"), chain);
+        assertTrue(call("GET", "/chain?id=18", 200).endsWith("\"end\":\"MISSING_MANAGER\",\"missingManagerId\":100}"));
+
+        String subtree = call("GET", "/subtree?id=4&limit=3", 200);
+        assertTrue(subtree.contains("\"headcount\":10"), subtree);
+        assertTrue(subtree.endsWith("\"truncated\":true}"), subtree);
+
+        assertTrue(call("GET", "/manager?id=12&k=3", 200).contains("\"k\":3,\"manager\":{\"employeeId\":4,"));
+        assertTrue(call("GET", "/manager?id=12&k=6", 200).endsWith("\"manager\":null}"));
+        assertTrue(call("GET", "/common-manager?id=16&other=13", 200).contains("\"commonManager\":{\"employeeId\":4,"));
+        assertTrue(call("GET", "/common-manager?id=12&other=19", 200).endsWith("\"commonManager\":null}"));
+        assertTrue(call("GET", "/in-chain?id=13&manager=2", 200).endsWith("\"inChain\":true}"));
+        assertTrue(call("GET", "/in-chain?id=13&manager=5", 200).endsWith("\"inChain\":false}"));
+        assertTrue(call("GET", "/in-chain?id=13&manager=999", 404).contains("No employee with id 999"));
+
+        assertTrue(call("GET", "/depth?id=999", 404).contains("No employee with id 999"));
+        assertTrue(call("GET", "/depth?id=abc", 400).contains("Invalid id"));
+        assertTrue(call("GET", "/subtree?id=1&limit=-1", 400).contains("Invalid limit: -1"));
+        call("POST", "/depth?id=1", 405);
+
+        String metrics = call("GET", "/metrics", 200);
+        assertTrue(metrics.contains("\"rowsParsed\":19,"), metrics);
+        assertTrue(metrics.contains("\"queries/depth\":3"), metrics);
+    }
+
+    @Test
+    void testNonFiniteSalariesAreJsonNull(@TempDir Path dir) throws IOException {
+        Path csv = dir.resolve("org.csv");
+        Files.write(csv, Arrays.asList("Id,firstName,lastName,salary,managerId", "1,Ada,Boss,100000,",
+                "2,Mo,Middle,80000,1", "3,Bob,Huge,Infinity,2", "4,Cy,Low,50000,2"), StandardCharsets.UTF_8);
+        start(csv);
+
+        String band = call("GET", "/band?id=2", 200);
+        assertTrue(band.contains("\"averageReportSalary\":null,\"minExpectedSalary\":null,\"maxExpectedSalary\":null"), band);
+        String subtree = call("GET", "/subtree?id=1", 200);
+        assertTrue(subtree.contains("\"totalSalary\":null"), subtree);
+        assertTrue(subtree.contains("\"lastName\":\"Huge\",\"salary\":null"), subtree);
+        assertFalse(subtree.contains("Infinity"), subtree);
+    }
+
+    @Test
+    void testReloadSwapsWhileQueriesContinue(@TempDir Path dir) throws Exception {
+        Path csv = writeSample(dir);
+        start(csv);
+        new OrgGenerator(20000, 1).writeCsv(csv);
+
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> answers = new ArrayList<>();
+            for (int i = 0; i < 40; i++) answers.add(clients.submit(() -> call("GET", "/depth?id=1", 200)));
+            assertTrue(call("POST", "/reload", 200).startsWith("{\"rows\":20000,"));
+            for (Future<String> answer : answers) assertTrue(answer.get().contains("\"managerCount\":0"));
+        } finally {
+            clients.shutdown();
+        }
+        assertEquals(20000, server.current().getTable().size());
+        assertTrue(call("GET", "/status", 200).startsWith("{\"rows\":20000,"));
+    }
+}
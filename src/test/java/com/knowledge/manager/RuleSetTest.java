@@ -0,0 +1,118 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleSetTest {
+
+    private static List<Finding> evaluate(RuleSet rules, EmployeeTable table) {
+        CollectingFindingSink sink = new CollectingFindingSink();
+        rules.evaluate(table, sink);
+        return sink.getFindings();
+    }
+
+    private static List<Integer> ids(List<Finding> findings) {
+        return findings.stream().map(f -> ((Finding.RuleViolation) f).getEmployeeId()).collect(Collectors.toList());
+    }
+
+    @Test
+    void testDefaultsMatchAnalyzer() {
+        EmployeeTable table = new OrgGenerator(20000, 6).underpaidRate(0.02).overpaidRate(0.02).orphanRate(0.005)
+                .cycleRate(0.001).toTable();
+        CollectingFindingSink expected = new CollectingFindingSink();
+        SalaryBandAnalyzer.analyze(table, StructureValidator.validate(table), 1, expected);
+        EmployeeTableAnalyzer.reportDeepHierarchy(table, DepthIndex.build(table), 4, expected);
+
+        List<Finding> actual = evaluate(RuleSet.defaults(4), table);
+        List<Finding> bands = actual.stream().filter(f -> f instanceof Finding.SalaryBand)
+                .sorted(Comparator.comparingInt(f -> ((Finding.SalaryBand) f).getManagerId())).collect(Collectors.toList());
+        List<Finding> deep = actual.stream().filter(f -> f instanceof Finding.DeepReportingLine).collect(Collectors.toList());
+        bands.addAll(deep);
+        assertEquals(expected.getFindings(), bands);
+        assertFalse(deep.isEmpty());
+    }
+
+    @Test
+    void testBuiltInRules() {
+        EmployeeTable table = EmployeeTable.of(EmployeeTableTest.buildSampleEmployees());
+
+        List<Finding> span = evaluate(RuleSet.builder().spanOfControl(1, 1).build(), table);
+        assertEquals(Arrays.asList(1, 2, 4, 5, 6, 7, 8, 9), ids(span));
+        assertEquals("Rule span-of-control: EmployeeId: 1 (Alice CEO) has direct reports 2, above the maximum of 1.",
+                span.get(0).toText());
+
+        List<Finding> skip = evaluate(RuleSet.builder().skipLevelRatio(1.3).build(), table);
+        assertEquals(Arrays.asList(7), ids(skip));
+        assertEquals(130000.0 / 120000, ((Finding.RuleViolation) skip.get(0)).getValue(), 1e-12);
+
+        assertEquals(Arrays.asList(5, 8, 9), ids(evaluate(RuleSet.builder().payCompression(1.03).build(), table)));
+    }
+
+    @Test
+    void testBandByDepthOnlyAppliesInRange() {
+        EmployeeTable table = new OrgGenerator(5000, 2).underpaidRate(0.05).overpaidRate(0.05).toTable();
+        DepthIndex depths = DepthIndex.build(table);
+        List<Finding> all = evaluate(RuleSet.builder().salaryBand(1.2, 1.5).build(), table);
+        List<Finding> levelTwo = evaluate(RuleSet.builder().salaryBand(2, 2, 1.2, 1.5).build(), table);
+
+        assertEquals(all.stream().filter(f -> depths.depth(table.rowOf(((Finding.SalaryBand) f).getManagerId())) == 2)
+                .collect(Collectors.toList()), levelTwo);
+        assertFalse(levelTwo.isEmpty());
+    }
+
+    @Test
+    void testAllRulesInOnePassKeepRowOrder() {
+        EmployeeTable table = EmployeeTable.of(EmployeeTableTest.buildSampleEmployees());
+        RuleSet rules = RuleSet.parse(Arrays.asList(
+                "# compensation policy",
+                "band 1.2 1.5",
+                "max-depth 4",
+                "span-of-control 1 1   # flat teams only",
+                "",
+                "skip-level-ratio 1.3",
+                "pay-compression 1.03"));
+        assertEquals(5, rules.size());
+
+        List<Finding> findings = evaluate(rules, table);
+        // Grace (row 6): band, span, skip-level ratio, in rule order.
+        List<Finding> grace = findings.stream().filter(f -> f.toText().contains("(Grace Manager)")).collect(Collectors.toList());
+        assertEquals(Finding.Kind.OVERPAID, grace.get(0).getKind());
+        assertEquals("span-of-control", ((Finding.RuleViolation) grace.get(1)).getRule());
+        assertEquals("skip-level-ratio", ((Finding.RuleViolation) grace.get(2)).getRule());
+        assertEquals(4, findings.stream().filter(f -> f.getKind() == Finding.Kind.DEEP_REPORTING_LINE).count());
+    }
+
+    @Test
+    void testSkippedRowsBreakNoRule() {
+        EmployeeTable table = new OrgGenerator(30000, 9).fanOut(1, 12).underpaidRate(0.02).overpaidRate(0.02)
+                .orphanRate(0.005).cycleRate(0.001).toTable();
+        RuleSet.Builder fused = RuleSet.builder();
+        RuleSet.Builder unfused = RuleSet.builder();
+        for (RuleSet.Builder builder : Arrays.asList(fused, unfused)) {
+            builder.salaryBand(1.2, 1.5).salaryBand(0, 2, 1.3, 1.45).maxDepth(6).maxDepth(8).spanOfControl(2, 10)
+                    .spanOfControl(1, 11).skipLevelRatio(1.5).skipLevelRatio(1.7).payCompression(1.01).payCompression(1.05);
+        }
+        // A custom rule turns off the skipping, so every row goes through every rule.
+        unfused.add((row, sink) -> { });
+
+        List<Finding> expected = evaluate(unfused.build(), table);
+        assertTrue(expected.size() > 1000);
+        assertEquals(expected, evaluate(fused.build(), table));
+    }
+
+    @Test
+    void testParseErrorsNameTheLine() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> RuleSet.parse(Arrays.asList("band 1.2 1.5", "max-reports 10")));
+        assertEquals("Rule line 2 (max-reports 10): unknown rule max-reports", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse(Arrays.asList("band 1.5 1.2")));
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse(Arrays.asList("span-of-control 5")));
+        assertThrows(IllegalArgumentException.class, () -> RuleSet.parse(Arrays.asList("band 1.2 1.5 two-three")));
+    }
+}
@@ -0,0 +1,61 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalaryBandAnalyzerTest {
+
+    private static List<Employee> bushyOrg(int size, long seed) {
+        Random random = new Random(seed);
+        List<Employee> employees = new ArrayList<>();
+        employees.add(new Employee(1, "Ceo", "Top", 900000, null));
+        for (int id = 2; id <= size; id++) {
+            employees.add(new Employee(id, "F" + id, "L" + id, 20000 + random.nextInt(150000), 1 + random.nextInt(id / 4 + 1)));
+        }
+        Collections.shuffle(employees, random);
+        return employees;
+    }
+
+    @Test
+    void testParallelResultIsIdenticalAndSortedByManagerId() {
+        List<Employee> employees = bushyOrg(60_000, 11);
+        EmployeeTable table = EmployeeTable.of(employees);
+        StructureValidator structure = StructureValidator.validate(table);
+
+        CollectingFindingSink sequential = new CollectingFindingSink();
+        CollectingFindingSink parallel = new CollectingFindingSink();
+        SalaryBandAnalyzer.analyze(table, structure, 1, sequential);
+        SalaryBandAnalyzer.analyze(table, structure, 4, parallel);
+
+        assertFalse(sequential.getFindings().isEmpty());
+        assertEquals(sequential.getFindings(), parallel.getFindings());
+        int previous = Integer.MIN_VALUE;
+        for (Finding finding : parallel.getFindings()) {
+            int id = ((Finding.SalaryBand) finding).getManagerId();
+            assertTrue(id > previous, "sorted by manager id");
+            previous = id;
+        }
+    }
+
+    @Test
+    void testMatchesMapBasedSalaryFindings() {
+        List<Employee> employees = bushyOrg(1_000, 5);
+        Map<Integer, Employee> idToEmployee = ManagerSalaryAnalyzer.buildIdToEmployee(employees);
+        Map<Integer, List<Employee>> managerToReports = ManagerSalaryAnalyzer.buildManagerToReports(employees);
+
+        Set<String> expected = new HashSet<>(ManagerSalaryAnalyzer.analyzeManagerSalary(managerToReports, idToEmployee));
+        Set<String> actual = new HashSet<>(EmployeeTableAnalyzer.analyzeManagerSalary(EmployeeTable.of(employees), 3));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testRejectsNonPositiveParallelism() {
+        EmployeeTable table = EmployeeTable.of(EmployeeTableTest.buildSampleEmployees());
+        assertThrows(IllegalArgumentException.class,
+                () -> SalaryBandAnalyzer.analyze(table, StructureValidator.validate(table), 0, finding -> { }));
+    }
+}
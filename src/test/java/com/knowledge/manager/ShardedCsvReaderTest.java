@@ -0,0 +1,112 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedCsvReaderTest {
+
+    private static final String HEADER = "Id,firstName,lastName,salary,managerId";
+
+    private static void writeShard(Path file, List<String> rows) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        lines.addAll(rows);
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    private static List<Finding> analyze(EmployeeTable table) {
+        CollectingFindingSink sink = new CollectingFindingSink();
+        EmployeeTableAnalyzer.analyze(table, 1, 4, sink);
+        return sink.getFindings();
+    }
+
+    @Test
+    void testShardsMatchSingleFile(@TempDir Path dir) throws IOException {
+        Path whole = dir.resolve("whole.txt");
+        new OrgGenerator(20000, 17).underpaidRate(0.02).overpaidRate(0.02).orphanRate(0.005).writeCsv(whole);
+        List<String> rows = Files.readAllLines(whole, StandardCharsets.UTF_8);
+        rows = rows.subList(1, rows.size());
+        Path shards = Files.createDirectory(dir.resolve("shards"));
+        int shardCount = 5;
+        int per = (rows.size() + shardCount - 1) / shardCount;
+        for (int s = 0; s < shardCount; s++) {
+            writeShard(shards.resolve("region-" + s + ".csv"), rows.subList(s * per, Math.min(rows.size(), (s + 1) * per)));
+        }
+
+        EmployeeTable expected = ManagerSalaryAnalyzer.readEmployeeTable(whole, CsvParseMode.STREAMING);
+        CollectingFindingSink warnings = new CollectingFindingSink();
+        EmployeeTable table = ManagerSalaryAnalyzer.readEmployeeTable(shards.toString(), warnings, Metrics.NOOP);
+
+        assertEquals(expected.size(), table.size());
+        assertEquals(analyze(expected), analyze(table));
+        assertTrue(warnings.getFindings().isEmpty());
+    }
+
+    @Test
+    void testManagersResolveAcrossShards(@TempDir Path dir) throws IOException {
+        // Reports are read before the shard holding their managers.
+        writeShard(dir.resolve("a-engineering.csv"), Arrays.asList(
+                "3,Carol,Dev,50000,2",
+                "4,Dan,Dev,50000,2"));
+        writeShard(dir.resolve("b-management.csv"), Arrays.asList(
+                "1,Alice,CEO,200000,",
+                "2,Bob,Lead,65000,1"));
+
+        EmployeeTable table = ManagerSalaryAnalyzer.readEmployeeTable(dir.toString(), new CollectingFindingSink(), Metrics.NOOP);
+        assertEquals(4, table.size());
+        for (int r = 0; r < table.size(); r++) {
+            assertNotEquals(EmployeeTable.MISSING_MANAGER, table.managerIdx[r]);
+        }
+        assertEquals(2, table.ids[table.managerIdx[table.rowOf(3)]]);
+        assertEquals(1, table.ids[table.managerIdx[table.rowOf(2)]]);
+    }
+
+    @Test
+    void testDuplicateIdsAcrossShards(@TempDir Path dir) throws IOException {
+        writeShard(dir.resolve("emea.csv"), Arrays.asList(
+                "1,Alice,CEO,200000,",
+                "2,Bob,Lead,90000,1"));
+        writeShard(dir.resolve("us.csv"), Arrays.asList(
+                "2,Robert,Lead,95000,1",
+                "3,Carol,Dev,60000,2"));
+
+        List<Path> files = ShardedCsvReader.resolve(dir.toString());
+        EmployeeTable.Builder builder = new EmployeeTable.Builder();
+        ShardedCsvReader reader = new ShardedCsvReader(builder, 2);
+        reader.read(files);
+
+        assertEquals(4, reader.getRowsRead());
+        assertEquals(1, reader.getDuplicates().size());
+        Finding.DuplicateId duplicate = reader.getDuplicates().get(0);
+        assertEquals(2, duplicate.getEmployeeId());
+        assertEquals("WARNING: EmployeeId: 2 appears in both emea.csv and us.csv; the row from us.csv is used.",
+                duplicate.toText());
+        EmployeeTable table = builder.build();
+        assertEquals("Robert", table.firstName(table.rowOf(2)));
+    }
+
+    @Test
+    void testResolveDirectoryAndGlob(@TempDir Path dir) throws IOException {
+        for (String name : Arrays.asList("us-west.csv", "emea.csv", "us-east.csv", "notes.txt")) {
+            writeShard(dir.resolve(name), Arrays.asList("1,Alice,CEO,200000,"));
+        }
+
+        assertEquals(Arrays.asList(dir.resolve("emea.csv"), dir.resolve("us-east.csv"), dir.resolve("us-west.csv")),
+                ShardedCsvReader.resolve(dir.toString()));
+        assertEquals(Arrays.asList(dir.resolve("us-east.csv"), dir.resolve("us-west.csv")),
+                ShardedCsvReader.resolve(dir.resolve("us-*.csv").toString()));
+        assertTrue(ShardedCsvReader.isSharded(dir.resolve("us-*.csv").toString()));
+        assertFalse(ShardedCsvReader.isSharded(dir.resolve("emea.csv").toString()));
+        assertEquals(Arrays.asList(dir.resolve("emea.csv")), ShardedCsvReader.resolve(dir.resolve("emea.csv").toString()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StructureValidatorTest {
+
+    // Old per-employee definition: walk the managers and look for a repeated id.
+    private static boolean naiveHasCycle(Employee e, Map<Integer, Employee> idToEmployee) {
+        Set<Integer> path = new HashSet<>();
+        Integer managerId = e.managerId;
+        while (managerId != null) {
+            if (!path.add(managerId)) return true;
+            Employee mgr = idToEmployee.get(managerId);
+            if (mgr == null) break;
+            managerId = mgr.managerId;
+        }
+        return false;
+    }
+
+    @Test
+    void testCycleMembersMatchPerEmployeeWalk() {
+        Random random = new Random(3);
+        List<Employee> employees = new ArrayList<>();
+        for (int id = 1; id <= 3000; id++) {
+            int roll = random.nextInt(100);
+            Integer managerId = roll < 3 ? null : roll < 6 ? 5000 + id : 1 + random.nextInt(3000);
+            employees.add(new Employee(id, "F", "L", 1000, managerId));
+        }
+        Map<Integer, Employee> idToEmployee = ManagerSalaryAnalyzer.buildIdToEmployee(employees);
+        EmployeeTable table = EmployeeTable.of(employees);
+        StructureValidator structure = StructureValidator.validate(table);
+
+        int cycles = 0;
+        for (int r = 0; r < table.size(); r++) {
+            boolean expected = naiveHasCycle(employees.get(r), idToEmployee);
+            assertEquals(expected, structure.reachesCycle(r), "row " + r);
+            if (expected) cycles++;
+        }
+        assertTrue(cycles > 0, "random org should contain loops");
+    }
+
+    @Test
+    void testRootsAndMultipleManagers() {
+        EmployeeTable table = EmployeeTable.of(Arrays.asList(
+                new Employee(1, "Alice", "CEO", 100000, null),
+                new Employee(2, "Bob", "Manager1", 90000, 1),
+                new Employee(3, "Carol", "Manager2", 90000, 1),
+                new Employee(4, "Eve", "MultiManaged", 50000, 2),
+                new Employee(4, "Eve", "MultiManaged", 50000, 3),
+                new Employee(4, "Eve", "MultiManaged", 50000, 1)));
+        StructureValidator structure = StructureValidator.validate(table);
+
+        assertEquals(1, structure.rootCount());
+        assertTrue(structure.isCEO(0));
+        assertArrayEquals(new int[]{4}, structure.multipleManagerIds());
+
+        CollectingFindingSink warnings = new CollectingFindingSink();
+        structure.report(warnings);
+        assertEquals(Collections.singletonList(new Finding.MultipleManagers(4)), warnings.getFindings());
+        assertEquals("WARNING: EmployeeId: 4 has multiple managers (not supported).", warnings.getTexts().get(0));
+    }
+
+    @Test
+    void testLargeOrgAnalyzesInLinearTime() {
+        // A 200k long reporting chain: quadratic cycle or CEO checks would not finish here.
+        // Zero salaries keep every manager inside the band so only structural warnings are produced.
+        List<Employee> employees = new ArrayList<>();
+        employees.add(new Employee(1, "Ceo", "Top", 0, null));
+        for (int id = 2; id <= 200_000; id++) employees.add(new Employee(id, "F", "L", 0, id - 1));
+        employees.add(new Employee(200_001, "Loop", "A", 0, 200_002));
+        employees.add(new Employee(200_002, "Loop", "B", 0, 200_001));
+
+        Map<Integer, Employee> idToEmployee = ManagerSalaryAnalyzer.buildIdToEmployee(employees);
+        Map<Integer, List<Employee>> managerToReports = ManagerSalaryAnalyzer.buildManagerToReports(employees);
+        List<String> mapResults = ManagerSalaryAnalyzer.analyzeManagerSalary(managerToReports, idToEmployee);
+        List<String> tableResults = EmployeeTableAnalyzer.analyzeManagerSalary(EmployeeTable.of(employees));
+
+        assertEquals(new HashSet<>(mapResults), new HashSet<>(tableResults));
+        assertEquals(2, tableResults.stream().filter(s -> s.contains("circular reporting structure")).count());
+    }
+}
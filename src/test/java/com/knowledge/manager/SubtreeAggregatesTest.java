@@ -0,0 +1,105 @@
+package com.knowledge.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubtreeAggregatesTest {
+
+    // Salaries of everyone below the row, by walking the report index.
+    private static List<Double> below(EmployeeTable table, int row) {
+        List<Double> salaries = new ArrayList<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(row);
+        while (!queue.isEmpty()) {
+            int r = queue.poll();
+            for (int i = 0; i < table.reportCount(r); i++) {
+                int report = table.report(r, i);
+                salaries.add(table.salary(report));
+                queue.add(report);
+            }
+        }
+        return salaries;
+    }
+
+    @Test
+    void testAggregatesMatchSubtreeWalk() {
+        EmployeeTable table = new OrgGenerator(3000, 8).fanOut(1, 5).orphanRate(0.01).extraRootRate(0.002).toTable();
+        SubtreeAggregates aggregates = SubtreeAggregates.build(table, DepthIndex.build(table));
+
+        for (int r = 0; r < table.size(); r++) {
+            List<Double> salaries = below(table, r);
+            assertEquals(salaries.size(), aggregates.headcount(r));
+            double sum = 0;
+            double sumSquares = 0;
+            for (double s : salaries) {
+                sum += s;
+                sumSquares += s * s;
+            }
+            assertEquals(sum, aggregates.totalSalary(r), 1e-6 * Math.max(1, sum));
+            assertEquals(sumSquares, aggregates.sumOfSquares(r), 1e-6 * Math.max(1, sumSquares));
+            if (salaries.isEmpty()) {
+                assertTrue(Double.isNaN(aggregates.minSalary(r)));
+                assertTrue(Double.isNaN(aggregates.averageSalary(r)));
+            } else {
+                assertEquals(Collections.min(salaries), aggregates.minSalary(r));
+                assertEquals(Collections.max(salaries), aggregates.maxSalary(r));
+                assertEquals(sum / salaries.size(), aggregates.averageSalary(r), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void testSampleOrg() {
+        EmployeeTable table = EmployeeTable.of(EmployeeTableTest.buildSampleEmployees());
+        SubtreeAggregates aggregates = SubtreeAggregates.build(table, DepthIndex.build(table));
+        int bob = table.rowOf(2);
+
+        assertEquals(16, aggregates.headcount(table.rowOf(1)));
+        assertEquals(14, aggregates.headcount(bob));
+        assertEquals(32000, aggregates.minSalary(bob));
+        assertEquals(120000, aggregates.maxSalary(bob));
+        assertEquals(0, aggregates.headcount(table.rowOf(18)));
+        assertNull(aggregates.sketch(bob));
+    }
+
+    @Test
+    void testQuantilesWithinRelativeAccuracy() {
+        EmployeeTable table = new OrgGenerator(50000, 3).fanOut(2, 10).toTable();
+        SubtreeAggregates aggregates = SubtreeAggregates.build(table, DepthIndex.build(table), 500, 0.01);
+
+        int sketched = 0;
+        for (int r = 0; r < table.size(); r++) {
+            SalarySketch sketch = aggregates.sketch(r);
+            assertEquals(aggregates.headcount(r) >= 500, sketch != null);
+            if (sketch == null) continue;
+            sketched++;
+            List<Double> salaries = below(table, r);
+            Collections.sort(salaries);
+            assertEquals(salaries.size(), sketch.count());
+            for (double q : new double[]{0, 0.1, 0.5, 0.9, 0.99, 1}) {
+                double exact = salaries.get((int) (q * (salaries.size() - 1)));
+                assertEquals(exact, aggregates.quantile(r, q), exact * 0.01, "row " + r + " q " + q);
+            }
+        }
+        assertTrue(sketched > 10);
+    }
+
+    @Test
+    void testSketchMerge() {
+        SalarySketch left = new SalarySketch(0.02);
+        SalarySketch right = new SalarySketch(0.02);
+        for (int i = 1; i <= 100; i++) left.add(i * 1000);
+        for (int i = 101; i <= 200; i++) right.add(i * 1000);
+        left.merge(right);
+
+        assertEquals(200, left.count());
+        assertEquals(100000, left.quantile(0.5), 100000 * 0.02);
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new SalarySketch(0.01)));
+    }
+}